@@ -0,0 +1,77 @@
+import javax.swing.SwingUtilities;
+import java.awt.GraphicsEnvironment;
+import java.nio.file.Path;
+
+/**
+ * Benchmark for everything downstream of speech recognition: replays a recording made with
+ * {@code -Dasr.recordFile=...} through {@link Transcription}'s response handling (pause commit,
+ * line finalization, batching, dispatch, UI updates) with no audio and no network.
+ *
+ * Gemini is disabled unless {@code -Dgemini.enabled=true} is passed, so verdicts come only from the
+ * claim knowledge base and runs are repeatable. The overlay is created but not shown, which still
+ * needs a display.
+ *
+ * Usage: AsrReplayBenchmark recording [speed] [runs]
+ * speed 1 keeps the recorded timing (pause commits behave as live), 0 replays back to back.
+ */
+public class AsrReplayBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: AsrReplayBenchmark recording [speed] [runs]");
+            System.exit(2);
+        }
+        Path recording = Path.of(args[0]);
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        // Must be set before RuntimeConfig is first used
+        setDefault("gemini.enabled", "false");
+        setDefault("factcheck.archive.minutes", "0");
+        System.setProperty("asr.recordFile", "");
+
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println("A display is required: the benchmark drives the real overlay UI.");
+            System.exit(1);
+        }
+
+        AsrStreamReplayer replayer = AsrStreamReplayer.load(recording);
+        System.out.println("Loaded " + replayer.size() + " responses from " + recording + ".");
+        ClaimKnowledgeBase.load(Path.of(System.getProperty("factcheck.kb", "claims.kb")));
+        FactCheckUI ui = new FactCheckUI();
+
+        // Warm-up so the measured runs see JIT-compiled code
+        runOnce(replayer, ui, 0);
+
+        for (int run = 1; run <= runs; run++) {
+            RunResult result = runOnce(replayer, ui, speed);
+            AsrStreamReplayer.Result r = result.replay();
+            System.out.printf("Run %d: %d responses, recorded %.1f s, replayed in %.1f ms (%.1fx real time)%n",
+                    run, r.responses(), r.spanNanos() / 1e9, r.wallNanos() / 1e6,
+                    r.wallNanos() == 0 ? 0 : (double) r.spanNanos() / r.wallNanos());
+            System.out.printf("  onResponse: p50 %.1f us, p99 %.1f us, max %.1f us; UI drain %.1f ms; max lateness %.2f ms%n",
+                    r.handlerPercentile(50) / 1e3, r.handlerPercentile(99) / 1e3, r.handlerPercentile(100) / 1e3,
+                    result.drainNanos() / 1e6, r.maxLateNanos() / 1e6);
+        }
+        System.out.println(PipelineMetrics.snapshot());
+        SwingUtilities.invokeAndWait(ui::dispose);
+        System.exit(0);
+    }
+
+    private record RunResult(AsrStreamReplayer.Result replay, long drainNanos) {}
+
+    private static RunResult runOnce(AsrStreamReplayer replayer, FactCheckUI ui, double speed) throws Exception {
+        Transcription transcription = new Transcription(ui);
+        AsrStreamReplayer.Result result = replayer.replay(transcription.createResponseObserver(), speed);
+        // Time until the UI has applied every update the replay queued
+        long drainStart = System.nanoTime();
+        SwingUtilities.invokeAndWait(() -> {});
+        long drain = System.nanoTime() - drainStart;
+        transcription.stop();
+        return new RunResult(result, drain);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) System.setProperty(key, value);
+    }
+}
@@ -0,0 +1,92 @@
+import com.google.api.gax.rpc.ResponseObserver;
+import com.google.api.gax.rpc.StreamController;
+import com.google.cloud.speech.v1.StreamingRecognizeResponse;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records every {@link StreamingRecognizeResponse} the live stream delivers, with its arrival time,
+ * so the session can later be fed back through {@link AsrStreamReplayer} without audio or network.
+ *
+ * File layout: magic {@code LFAR}, version, recording start (epoch ms), then per response the
+ * arrival offset in nanoseconds from the start followed by the length-delimited protobuf bytes.
+ * One recorder spans all stream restarts of a session, so offsets stay on a single timeline.
+ * Each response is flushed as it is recorded, so a session that ends without {@link #close()}
+ * (for example a crash) still leaves a readable file.
+ */
+public class AsrStreamRecorder implements AutoCloseable {
+    static final int FILE_MAGIC = 0x4C464152; // "LFAR"
+    static final int FILE_VERSION = 1;
+
+    private final Path file;
+    private final DataOutputStream out;
+    private final long startNanos;
+    private int recorded = 0;
+    private boolean closed = false;
+
+    public AsrStreamRecorder(Path file) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        this.startNanos = System.nanoTime();
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        out.writeLong(System.currentTimeMillis());
+        System.out.println("Recording ASR responses to " + file + ".");
+    }
+
+    /** Returns an observer that records each response and then passes it on to {@code delegate}. */
+    public ResponseObserver<StreamingRecognizeResponse> wrap(ResponseObserver<StreamingRecognizeResponse> delegate) {
+        return new ResponseObserver<>() {
+            @Override
+            public void onStart(StreamController controller) {
+                delegate.onStart(controller);
+            }
+
+            @Override
+            public void onResponse(StreamingRecognizeResponse response) {
+                record(response);
+                delegate.onResponse(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                delegate.onError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                delegate.onComplete();
+            }
+        };
+    }
+
+    private synchronized void record(StreamingRecognizeResponse response) {
+        if (closed) return;
+        try {
+            out.writeLong(System.nanoTime() - startNanos);
+            response.writeDelimitedTo(out);
+            // A few responses per second, so flushing each one costs little
+            out.flush();
+            recorded++;
+        } catch (IOException e) {
+            System.err.println("ASR recording stopped: " + e.getMessage());
+            close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            out.close();
+            System.out.println("Recorded " + recorded + " ASR responses to " + file + ".");
+        } catch (IOException e) {
+            System.err.println("Could not close ASR recording: " + e.getMessage());
+        }
+    }
+}
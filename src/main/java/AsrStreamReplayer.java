@@ -0,0 +1,119 @@
+import com.google.api.gax.rpc.ResponseObserver;
+import com.google.cloud.speech.v1.StreamingRecognizeResponse;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feeds a recording made by {@link AsrStreamRecorder} into a response observer on the calling
+ * thread, at the original pace or faster, and measures how long the observer takes per response.
+ */
+public class AsrStreamReplayer {
+
+    private record Entry(long offsetNanos, StreamingRecognizeResponse response) {}
+
+    /**
+     * @param responses      responses delivered
+     * @param spanNanos      arrival offset of the last response, i.e. the recorded duration
+     * @param wallNanos      time the replay took
+     * @param handlerNanos   time spent inside {@code onResponse}, sorted ascending
+     * @param maxLateNanos   worst delay between a response's scheduled and actual delivery
+     */
+    public record Result(int responses, long spanNanos, long wallNanos, long[] handlerNanos, long maxLateNanos) {
+        public long handlerPercentile(double p) {
+            if (handlerNanos.length == 0) return 0;
+            int index = (int) Math.ceil(p / 100.0 * handlerNanos.length) - 1;
+            return handlerNanos[Math.max(0, Math.min(index, handlerNanos.length - 1))];
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private AsrStreamReplayer(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /** Reads the whole recording up front so file I/O does not show up in the measurements. */
+    public static AsrStreamReplayer load(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        boolean truncated = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != AsrStreamRecorder.FILE_MAGIC) {
+                throw new IOException(file + " is not an ASR recording.");
+            }
+            int version = in.readInt();
+            if (version != AsrStreamRecorder.FILE_VERSION) {
+                throw new IOException("Unsupported ASR recording version " + version + ".");
+            }
+            in.readLong(); // recording start, informational only
+            byte[] offsetBytes = new byte[Long.BYTES];
+            while (true) {
+                int read = in.readNBytes(offsetBytes, 0, offsetBytes.length);
+                if (read == 0) break; // clean end of the recording
+                if (read < offsetBytes.length) {
+                    truncated = true;
+                    break;
+                }
+                long offset = ByteBuffer.wrap(offsetBytes).getLong();
+                // A session that ended without closing the recorder can stop partway through a response
+                StreamingRecognizeResponse response;
+                try {
+                    response = StreamingRecognizeResponse.parseDelimitedFrom(in);
+                } catch (InvalidProtocolBufferException e) {
+                    response = null;
+                }
+                if (response == null) {
+                    truncated = true;
+                    break;
+                }
+                entries.add(new Entry(offset, response));
+            }
+        }
+        if (truncated) {
+            System.err.println(file + " is truncated; replaying the " + entries.size() + " complete responses.");
+        }
+        return new AsrStreamReplayer(entries);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Delivers every response to {@code observer} and then completes it. {@code speed} 1 keeps the
+     * recorded timing, 10 plays ten times faster, and 0 or less sends everything back to back.
+     */
+    public Result replay(ResponseObserver<StreamingRecognizeResponse> observer, double speed) {
+        long[] handlerNanos = new long[entries.size()];
+        long maxLate = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (speed > 0) {
+                long due = start + (long) (entry.offsetNanos() / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                maxLate = Math.max(maxLate, System.nanoTime() - due);
+            }
+            long before = System.nanoTime();
+            observer.onResponse(entry.response());
+            handlerNanos[i] = System.nanoTime() - before;
+        }
+        observer.onComplete();
+        long wall = System.nanoTime() - start;
+        Arrays.sort(handlerNanos);
+        long span = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).offsetNanos();
+        return new Result(entries.size(), span, wall, handlerNanos, maxLate);
+    }
+}
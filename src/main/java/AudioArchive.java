@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-size ring of the most recent captured audio (mono 16-bit PCM at the ASR rate) in a memory-mapped
+ * file, so a disputed moment can be pulled back out and re-transcribed.
+ *
+ * The capture thread writes the converted buffer straight into the mapping; there is no
+ * intermediate copy or allocation per buffer. Each write is indexed by its wall-clock start time,
+ * so ranges are addressed by timestamp rather than byte offset.
+ */
+public class AudioArchive implements AutoCloseable {
+    private static final int MIN_CHUNK_BYTES = 512;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer ring;
+    private final int capacity;
+    private final int sampleRate;
+    private final int bytesPerSecond;
+
+    private long totalWritten = 0; // monotonic byte position; ring index is totalWritten % capacity
+
+    // Chunk index ring: start time (epoch ms) and absolute byte position of each write
+    private final long[] chunkTime;
+    private final long[] chunkPosition;
+    private int chunkHead = 0;
+    private int chunkCount = 0;
+
+    public AudioArchive(Path file, int minutes, int sampleRate) throws IOException {
+        this.sampleRate = sampleRate;
+        this.bytesPerSecond = sampleRate * 2;
+        this.capacity = minutes * 60 * bytesPerSecond;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.ring = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        int maxChunks = capacity / MIN_CHUNK_BYTES;
+        this.chunkTime = new long[maxChunks];
+        this.chunkPosition = new long[maxChunks];
+        System.out.println("Audio archive: last " + minutes + " min in " + file + ".");
+    }
+
+    /** Appends {@code length} bytes of mono PCM that ended being captured just now. */
+    public synchronized void write(byte[] pcm, int offset, int length) {
+        if (length <= 0) return;
+        long startTime = System.currentTimeMillis() - length * 1000L / bytesPerSecond;
+        addChunk(startTime, totalWritten);
+
+        int ringPos = (int) (totalWritten % capacity);
+        int first = Math.min(length, capacity - ringPos);
+        ring.put(ringPos, pcm, offset, first);
+        if (first < length) {
+            ring.put(0, pcm, offset + first, length - first);
+        }
+        totalWritten += length;
+        dropOverwrittenChunks();
+    }
+
+    /**
+     * Copies the audio captured between the two timestamps (epoch ms), clipped to what is still
+     * retained. Returns an empty array if nothing in the range is available.
+     */
+    public synchronized byte[] read(long fromMillis, long toMillis) {
+        long oldest = Math.max(0, totalWritten - capacity);
+        long start = Math.max(oldest, positionAt(fromMillis));
+        long end = Math.min(totalWritten, positionAt(toMillis));
+        if (end <= start) return new byte[0];
+
+        byte[] out = new byte[(int) (end - start)];
+        int ringPos = (int) (start % capacity);
+        int first = Math.min(out.length, capacity - ringPos);
+        ring.get(ringPos, out, 0, first);
+        if (first < out.length) {
+            ring.get(0, out, first, out.length - first);
+        }
+        return out;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public synchronized long oldestTimestamp() {
+        return chunkCount == 0 ? System.currentTimeMillis() : chunkTime[chunkHead];
+    }
+
+    /**
+     * Closes the file. It is left in place and truncated on the next start; deleting a file that
+     * is still mapped fails on Windows.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void addChunk(long time, long position) {
+        int slot = (chunkHead + chunkCount) % chunkTime.length;
+        if (chunkCount == chunkTime.length) {
+            chunkHead = (chunkHead + 1) % chunkTime.length;
+        } else {
+            chunkCount++;
+        }
+        chunkTime[slot] = time;
+        chunkPosition[slot] = position;
+    }
+
+    /** Forgets chunks whose audio has been (even partly) overwritten, so the oldest timestamp stays honest. */
+    private void dropOverwrittenChunks() {
+        long oldest = totalWritten - capacity;
+        while (chunkCount > 0 && chunkPosition[chunkHead] < oldest) {
+            chunkHead = (chunkHead + 1) % chunkTime.length;
+            chunkCount--;
+        }
+    }
+
+    /** Absolute byte position corresponding to a timestamp, interpolated inside the matching chunk. */
+    private long positionAt(long millis) {
+        if (chunkCount == 0) return 0;
+        // Binary search for the last chunk starting at or before millis
+        int lo = 0, hi = chunkCount - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (chunkTime[(chunkHead + mid) % chunkTime.length] <= millis) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (found < 0) return chunkPosition[chunkHead];
+
+        int slot = (chunkHead + found) % chunkTime.length;
+        long chunkEnd = found + 1 < chunkCount ? chunkPosition[(slot + 1) % chunkTime.length] : totalWritten;
+        long offset = (millis - chunkTime[slot]) * bytesPerSecond / 1000;
+        long position = Math.min(chunkEnd, chunkPosition[slot] + offset);
+        return position & ~1L; // keep sample alignment
+    }
+}
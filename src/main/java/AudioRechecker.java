@@ -0,0 +1,106 @@
+import com.google.cloud.speech.v1.*;
+import com.google.protobuf.ByteString;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Re-runs a stretch of archived audio through ASR and the fact-check with extra context around it.
+ *
+ * Work runs on its own low-priority thread, one re-check at a time, and only calls Gemini once
+ * the live dispatch lane is idle so it never competes with live verdicts.
+ */
+public class AudioRechecker {
+    private static final long CONTEXT_BEFORE_MS = 10_000;
+    private static final long CONTEXT_AFTER_MS = 5_000;
+    private static final long MAX_RANGE_MS = 55_000; // synchronous recognize accepts up to 1 minute
+    private static final long MAX_IDLE_WAIT_MS = 15_000;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final AudioArchive archive;
+    private final BooleanSupplier liveIdle;
+    private final ExecutorService lane = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "audio-recheck");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    public AudioRechecker(AudioArchive archive, BooleanSupplier liveIdle) {
+        this.archive = archive;
+        this.liveIdle = liveIdle;
+    }
+
+    /**
+     * Re-transcribes {@code fromMillis..toMillis} (epoch ms) plus surrounding context and fact-checks
+     * the result. The future completes with a verdict block headed by the re-checked time range.
+     */
+    public CompletableFuture<String> recheck(long fromMillis, long toMillis) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = Math.max(archive.oldestTimestamp(), fromMillis - CONTEXT_BEFORE_MS);
+            long end = Math.min(System.currentTimeMillis(), toMillis + CONTEXT_AFTER_MS);
+            if (end - start > MAX_RANGE_MS) start = end - MAX_RANGE_MS;
+
+            byte[] pcm = archive.read(start, end);
+            if (pcm.length == 0) {
+                throw new CompletionException(new IllegalStateException("Requested audio is no longer in the archive."));
+            }
+            String header = "Re-check " + TIME_FORMATTER.format(Instant.ofEpochMilli(start))
+                    + "–" + TIME_FORMATTER.format(Instant.ofEpochMilli(end));
+            System.out.println(header + ": re-transcribing " + pcm.length * 500L / archive.getSampleRate() + " ms of audio.");
+            String transcript = transcribe(pcm);
+            if (!transcript.isBlank()) waitForLiveIdle();
+            return new String[]{header, transcript};
+        }, lane).thenCompose(parts -> {
+            if (parts[1].isBlank()) {
+                return CompletableFuture.completedFuture(parts[0] + "\nNo speech recognized in this range.");
+            }
+            return GeminiAPI.callFactCheckAPIAsync(parts[1]).thenApply(verdict -> parts[0] + "\n" + verdict);
+        });
+    }
+
+    public void shutdown() {
+        lane.shutdownNow();
+    }
+
+    private String transcribe(byte[] pcm) {
+        RecognitionConfig config = RecognitionConfig.newBuilder()
+                .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
+                .setLanguageCode("en-US")
+                .setSampleRateHertz(archive.getSampleRate())
+                .setEnableAutomaticPunctuation(true)
+                .setModel("latest_long")
+                .build();
+        RecognitionAudio audio = RecognitionAudio.newBuilder().setContent(ByteString.copyFrom(pcm)).build();
+
+        try (SpeechClient client = SpeechClient.create()) {
+            StringBuilder transcript = new StringBuilder();
+            for (SpeechRecognitionResult result : client.recognize(config, audio).getResultsList()) {
+                if (!result.getAlternativesList().isEmpty()) {
+                    transcript.append(result.getAlternatives(0).getTranscript().trim()).append(" ");
+                }
+            }
+            return transcript.toString().trim();
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void waitForLiveIdle() {
+        long deadline = System.currentTimeMillis() + MAX_IDLE_WAIT_MS;
+        while (!liveIdle.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
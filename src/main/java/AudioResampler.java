@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+/**
+ * Downmixes interleaved 16-bit PCM to mono and converts it to a different sample rate
+ * using a polyphase windowed-sinc (Kaiser) filter.
+ *
+ * All working buffers are sized once in the constructor, so {@link #process} does not
+ * allocate as long as callers stay within {@code maxInputBytes}.
+ */
+public class AudioResampler {
+    private static final int TAPS_PER_PHASE = 48;
+    private static final double KAISER_BETA = 8.0;
+    private static final double ROLLOFF = 0.92;
+
+    private final int channels;
+    private final boolean bigEndian;
+    private final int upFactor;   // L
+    private final int downFactor; // M
+    private final float[] coefficients; // phase-major: coefficients[phase * TAPS_PER_PHASE + k]
+
+    // Mono input with TAPS_PER_PHASE - 1 samples of history kept at the front
+    private final float[] history;
+    private int available = TAPS_PER_PHASE - 1;
+    private int phase = 0;
+    private final int maxInputBytes;
+
+    public AudioResampler(int inputRate, int channels, boolean bigEndian, int outputRate, int maxInputBytes) {
+        if (inputRate <= 0 || outputRate <= 0 || channels <= 0) {
+            throw new IllegalArgumentException("Invalid resampler configuration: " + inputRate + " Hz, " + channels + " ch -> " + outputRate + " Hz");
+        }
+        int g = gcd(inputRate, outputRate);
+        this.upFactor = outputRate / g;
+        this.downFactor = inputRate / g;
+        if (downFactor >= upFactor * TAPS_PER_PHASE) {
+            throw new IllegalArgumentException("Decimation ratio " + inputRate + "/" + outputRate + " is too large for a " + TAPS_PER_PHASE + "-tap resampler");
+        }
+        this.channels = channels;
+        this.bigEndian = bigEndian;
+        this.maxInputBytes = maxInputBytes;
+        this.coefficients = designFilter(upFactor, downFactor);
+        this.history = new float[TAPS_PER_PHASE - 1 + maxInputBytes / (2 * channels)];
+    }
+
+    /**
+     * Upper bound of bytes {@link #process} can write for {@code inputBytes} of input.
+     */
+    public int maxOutputBytes(int inputBytes) {
+        long frames = inputBytes / (2L * channels);
+        return (int) ((frames * upFactor) / downFactor + 2) * 2;
+    }
+
+    /**
+     * Consumes {@code length} bytes of interleaved PCM from {@code in} and writes 16-bit
+     * little-endian mono samples to {@code out}. Returns the number of bytes written.
+     */
+    public int process(byte[] in, int length, byte[] out) {
+        if (length > maxInputBytes) {
+            throw new IllegalArgumentException("Input of " + length + " bytes exceeds resampler capacity of " + maxInputBytes);
+        }
+        int frameSize = 2 * channels;
+        int frames = length / frameSize;
+        float scale = 1.0f / (32768.0f * channels);
+
+        // Downmix into the history buffer after the carried-over samples
+        int pos = 0;
+        for (int f = 0; f < frames; f++) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++) {
+                int lo = bigEndian ? in[pos + 1] : in[pos];
+                int hi = bigEndian ? in[pos] : in[pos + 1];
+                sum += (short) ((hi << 8) | (lo & 0xFF));
+                pos += 2;
+            }
+            history[available + f] = sum * scale;
+        }
+        available += frames;
+
+        // Filter: output n maps to upsampled index base * L + phase
+        int written = 0;
+        int base = TAPS_PER_PHASE - 1;
+        int ph = phase;
+        while (base < available) {
+            int coeff = ph * TAPS_PER_PHASE;
+            float acc = 0f;
+            for (int k = 0; k < TAPS_PER_PHASE; k++) {
+                acc += coefficients[coeff + k] * history[base - k];
+            }
+            int sample = Math.round(acc * 32767.0f);
+            if (sample > Short.MAX_VALUE) sample = Short.MAX_VALUE;
+            else if (sample < Short.MIN_VALUE) sample = Short.MIN_VALUE;
+            out[written++] = (byte) sample;
+            out[written++] = (byte) (sample >> 8);
+
+            ph += downFactor;
+            base += ph / upFactor;
+            ph %= upFactor;
+        }
+        phase = ph;
+
+        // Keep the last TAPS_PER_PHASE - 1 samples before the next unread position
+        int consumed = base - (TAPS_PER_PHASE - 1);
+        int keep = available - consumed;
+        System.arraycopy(history, consumed, history, 0, keep);
+        available = keep;
+        return written;
+    }
+
+    public void reset() {
+        Arrays.fill(history, 0f);
+        available = TAPS_PER_PHASE - 1;
+        phase = 0;
+    }
+
+    private static float[] designFilter(int up, int down) {
+        int length = up * TAPS_PER_PHASE;
+        double center = (length - 1) / 2.0;
+        // Cutoff in cycles per upsampled sample, below the narrower of the two Nyquist limits
+        double cutoff = 0.5 / Math.max(up, down) * ROLLOFF;
+        double i0Beta = besselI0(KAISER_BETA);
+
+        float[] polyphase = new float[length];
+        for (int i = 0; i < length; i++) {
+            double t = i - center;
+            double x = 2.0 * cutoff * t;
+            double sinc = x == 0 ? 1.0 : Math.sin(Math.PI * x) / (Math.PI * x);
+            double r = t / (length / 2.0);
+            double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0.0, 1.0 - r * r))) / i0Beta;
+            double h = 2.0 * cutoff * sinc * window * up;
+
+            int p = i % up;
+            int k = i / up;
+            polyphase[p * TAPS_PER_PHASE + k] = (float) h;
+        }
+        return polyphase;
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1.0, term = 1.0, halfX = x / 2.0;
+        for (int k = 1; k < 50; k++) {
+            term *= (halfX / k) * (halfX / k);
+            sum += term;
+            if (term < 1e-12 * sum) break;
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
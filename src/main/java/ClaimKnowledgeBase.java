@@ -0,0 +1,378 @@
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local store of already-verified claims so recurring statements can be answered without a Gemini round trip.
+ *
+ * Claims are indexed by normalized terms and numbers. Postings live in memory and the whole index is
+ * persisted as a compact binary file (varint claim/term strings, delta-encoded postings) that is read
+ * back as-is at startup.
+ * It is populated from Gemini verdicts ({@link #recordVerdicts}) and from curated JSONL imports
+ * ({@link #importCurated}).
+ */
+public class ClaimKnowledgeBase {
+    private static final int FILE_MAGIC = 0x4C464B42; // "LFKB"
+    private static final int FILE_VERSION = 1;
+    // Every claim term must appear in the sentence, and the sentence may add little else;
+    // anything looser is left to Gemini rather than risk an instant wrong verdict
+    private static final double MIN_SENTENCE_COVERAGE = 0.8;
+    private static final String NEGATION = "!not";
+    private static final Set<String> NEGATION_WORDS = Set.of(
+            "not", "no", "never", "none", "nor", "neither", "nobody", "nothing", "nowhere", "without", "cannot");
+    private static final int MIN_CLAIM_TERMS = 3;
+
+    private static final Pattern TOKEN = Pattern.compile("\\d[\\d,]*(?:\\.\\d+)?%?|[a-z][a-z']*");
+    private static final Pattern SENTENCE_SPLIT = Pattern.compile("(?<=[.!?])\\s+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "and", "or", "but", "of", "to", "in", "on", "at", "for", "by", "with", "from",
+            "is", "are", "was", "were", "be", "been", "it", "its", "this", "that", "these", "those", "as",
+            "we", "you", "they", "he", "she", "i", "our", "their", "have", "has", "had", "do", "does", "did",
+            "so", "than", "then", "there", "about", "just", "very", "really", "now", "will", "would");
+
+    private static final List<Claim> CLAIMS = new ArrayList<>();
+    private static final Map<String, Integer> CLAIM_IDS = new HashMap<>();
+    private static final Map<String, Postings> INDEX = new HashMap<>();
+    private static int[] scratchScores = new int[0];
+    private static Path storePath;
+    private static boolean dirty;
+
+    /** A stored claim: the normalized key, its distinct index terms and the verdict block shown in the UI. */
+    private record Claim(String key, String[] terms, String verdict) {}
+
+    /** A lookup hit: the transcript sentence that matched and the stored verdict for it. */
+    public record Match(String sentence, String verdict) {}
+
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+
+    public static synchronized void load(Path path) {
+        storePath = path;
+        if (!Files.exists(path)) {
+            System.out.println("Claim knowledge base not found at " + path + "; starting empty.");
+            return;
+        }
+        // Read into locals and publish only a complete file, so a failure part-way leaves nothing half-indexed
+        List<Claim> claims = new ArrayList<>();
+        Map<String, Integer> claimIds = new HashMap<>();
+        Map<String, Postings> index = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("unrecognized file format");
+            }
+            int claimCount = in.readInt();
+            for (int i = 0; i < claimCount; i++) {
+                String key = readString(in);
+                String verdict = readString(in);
+                String[] terms = key.split(" ");
+                claimIds.put(key, claims.size());
+                claims.add(new Claim(key, terms, verdict));
+            }
+            int termCount = in.readInt();
+            for (int i = 0; i < termCount; i++) {
+                String term = readString(in);
+                Postings postings = new Postings();
+                int size = readVarInt(in);
+                postings.ids = new int[Math.max(size, 1)];
+                int id = 0;
+                for (int p = 0; p < size; p++) {
+                    id += readVarInt(in);
+                    if (id >= claimCount) throw new IOException("index refers to missing claim " + id);
+                    postings.ids[p] = id;
+                }
+                postings.size = size;
+                index.put(term, postings);
+            }
+        } catch (EOFException e) {
+            System.err.println("Could not load claim knowledge base: file is truncated; starting empty.");
+            return;
+        } catch (IOException e) {
+            System.err.println("Could not load claim knowledge base: " + e.getMessage() + "; starting empty.");
+            return;
+        }
+        CLAIMS.clear();
+        CLAIMS.addAll(claims);
+        CLAIM_IDS.clear();
+        CLAIM_IDS.putAll(claimIds);
+        INDEX.clear();
+        INDEX.putAll(index);
+        dirty = false;
+        System.out.println("Loaded " + CLAIMS.size() + " verified claims (" + INDEX.size() + " index terms).");
+    }
+
+    public static synchronized void save() {
+        if (storePath == null || !dirty) return;
+        Path tmp = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(CLAIMS.size());
+            for (Claim claim : CLAIMS) {
+                writeString(out, claim.key());
+                writeString(out, claim.verdict());
+            }
+            out.writeInt(INDEX.size());
+            for (Map.Entry<String, Postings> entry : INDEX.entrySet()) {
+                writeString(out, entry.getKey());
+                Postings postings = entry.getValue();
+                writeVarInt(out, postings.size);
+                int previous = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    writeVarInt(out, postings.ids[i] - previous);
+                    previous = postings.ids[i];
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save claim knowledge base: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, storePath, StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("Could not replace claim knowledge base: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imports curated claims from a JSONL file with one object per line:
+     * {"claim": "...", "rating": "...", "reason": "...", "sources": "..."}.
+     */
+    public static synchronized int importCurated(Path jsonl) throws IOException {
+        int imported = 0;
+        try (BufferedReader reader = Files.newBufferedReader(jsonl, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JSONObject obj = new JSONObject(line);
+                String claim = obj.optString("claim", "").trim();
+                String rating = obj.optString("rating", "").trim();
+                if (claim.isEmpty() || rating.isEmpty()) continue;
+                String verdict = "**Claim**: " + claim + "\n**Rating**: " + rating
+                        + "\n**Reason**: " + obj.optString("reason", "")
+                        + "\n**Sources**: " + obj.optString("sources", "");
+                if (addClaim(claim, verdict)) imported++;
+            }
+        }
+        dirty |= imported > 0;
+        System.out.println("Imported " + imported + " curated claims from " + jsonl);
+        return imported;
+    }
+
+    /**
+     * Stores every rated claim block of a Gemini response. Unverified claims are not stored,
+     * so they are checked again the next time they come up.
+     */
+    public static synchronized void recordVerdicts(String response) {
+        if (response == null) return;
+        for (String block : splitClaimBlocks(response)) {
+            String claim = extractField(block, "Claim");
+            String rating = extractField(block, "Rating");
+            if (claim == null || rating == null || rating.toLowerCase().startsWith("unverified")) continue;
+            if (addClaim(stripQuotes(claim), block)) dirty = true;
+        }
+    }
+
+    /**
+     * Returns the stored verdict of every sentence in {@code transcript} that matches a known claim.
+     * A sentence matches only when it contains every term of the claim, adds few terms of its own,
+     * and is negated exactly when the claim is.
+     */
+    public static synchronized List<Match> lookup(String transcript) {
+        List<Match> matches = new ArrayList<>();
+        if (CLAIMS.isEmpty() || transcript == null) return matches;
+        for (String sentence : splitSentences(transcript)) {
+            Claim claim = bestMatch(sentence);
+            if (claim != null) matches.add(new Match(sentence, claim.verdict()));
+        }
+        return matches;
+    }
+
+    public static List<String> splitSentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        for (String s : SENTENCE_SPLIT.split(text.trim())) {
+            if (!s.isBlank()) sentences.add(s.trim());
+        }
+        return sentences;
+    }
+
+    public static synchronized int size() {
+        return CLAIMS.size();
+    }
+
+    private static Claim bestMatch(String sentence) {
+        String[] terms = terms(sentence);
+        if (terms.length == 0) return null;
+        if (scratchScores.length < CLAIMS.size()) scratchScores = new int[CLAIMS.size() * 2];
+
+        boolean sentenceNegated = isNegated(terms);
+        int[] scores = scratchScores;
+        int[] touched = new int[Math.min(CLAIMS.size(), 64)];
+        int touchedCount = 0;
+        for (String term : terms) {
+            Postings postings = INDEX.get(term);
+            if (postings == null) continue;
+            for (int i = 0; i < postings.size; i++) {
+                int id = postings.ids[i];
+                if (scores[id]++ == 0) {
+                    if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        Claim best = null;
+        double bestCoverage = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int id = touched[t];
+            int shared = scores[id];
+            scores[id] = 0;
+            Claim claim = CLAIMS.get(id);
+            if (shared < claim.terms().length) continue;
+            if (isNegated(claim.terms()) != sentenceNegated) continue;
+            double sentenceCoverage = shared / (double) terms.length;
+            if (sentenceCoverage >= MIN_SENTENCE_COVERAGE && sentenceCoverage > bestCoverage) {
+                best = claim;
+                bestCoverage = sentenceCoverage;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isNegated(String[] terms) {
+        for (String term : terms) {
+            if (term.equals(NEGATION)) return true;
+        }
+        return false;
+    }
+
+    private static boolean addClaim(String claimText, String verdict) {
+        String[] terms = terms(claimText);
+        if (terms.length < MIN_CLAIM_TERMS) return false;
+        String key = String.join(" ", terms);
+
+        Integer existing = CLAIM_IDS.get(key);
+        if (existing != null) {
+            Claim old = CLAIMS.get(existing);
+            if (old.verdict().equals(verdict)) return false;
+            CLAIMS.set(existing, new Claim(key, terms, verdict));
+            return true;
+        }
+
+        int id = CLAIMS.size();
+        CLAIMS.add(new Claim(key, terms, verdict));
+        CLAIM_IDS.put(key, id);
+        for (String term : terms) {
+            INDEX.computeIfAbsent(term, k -> new Postings()).add(id);
+        }
+        return true;
+    }
+
+    /**
+     * Distinct normalized terms, numbers first. Numbers are prefixed with '#' and stripped of
+     * thousands separators so "1,200" and "1200" index the same; "%" and "percent" both become "#%".
+     * Negations ("not", "never", "didn't", ...) all become one term so they must agree on both sides.
+     */
+    static String[] terms(String text) {
+        LinkedHashSet<String> numbers = new LinkedHashSet<>();
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        Matcher m = TOKEN.matcher(text.toLowerCase(Locale.ROOT));
+        while (m.find()) {
+            String token = m.group();
+            if (Character.isDigit(token.charAt(0))) {
+                if (token.endsWith("%")) {
+                    numbers.add("#" + token.substring(0, token.length() - 1).replace(",", ""));
+                    numbers.add("#%");
+                } else {
+                    numbers.add("#" + token.replace(",", ""));
+                }
+            } else if (token.equals("percent")) {
+                numbers.add("#%");
+            } else if (NEGATION_WORDS.contains(token) || token.endsWith("n't")) {
+                words.add(NEGATION);
+            } else if (!STOP_WORDS.contains(token)) {
+                words.add(token);
+            }
+        }
+        String[] result = new String[numbers.size() + words.size()];
+        int i = 0;
+        for (String n : numbers) result[i++] = n;
+        for (String w : words) result[i++] = w;
+        return result;
+    }
+
+    private static List<String> splitClaimBlocks(String response) {
+        List<String> blocks = new ArrayList<>();
+        StringBuilder current = null;
+        for (String line : response.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("**Claim**:")) {
+                if (current != null) blocks.add(current.toString().trim());
+                current = new StringBuilder();
+            }
+            if (current != null && !trimmed.isEmpty()) current.append(trimmed).append("\n");
+        }
+        if (current != null) blocks.add(current.toString().trim());
+        return blocks;
+    }
+
+    private static String extractField(String block, String field) {
+        String prefix = "**" + field + "**:";
+        for (String line : block.split("\n")) {
+            if (line.startsWith(prefix)) {
+                String value = line.substring(prefix.length()).trim();
+                return value.isEmpty() ? null : value;
+            }
+        }
+        return null;
+    }
+
+    private static String stripQuotes(String s) {
+        return s.replaceAll("^[\\[\"“']+|[\\]\"”']+$", "").trim();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("malformed varint");
+    }
+}
@@ -0,0 +1,247 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded queue between transcript batching and the fact-check API.
+ *
+ * At most {@code maxInFlight} requests run at once; further batches wait in a queue of fixed
+ * {@code capacity}. When the queue is full the configured {@link OverloadPolicy} decides what
+ * to give up, so during an API slowdown the app stays close to real time instead of showing
+ * verdicts minutes late.
+ */
+public class FactCheckDispatcher {
+
+    public enum OverloadPolicy {
+        /** Fold queued batches together and send them as one request. */
+        MERGE,
+        /** Drop the oldest queued batch. */
+        DROP_OLDEST,
+        /** Drop whichever batch (queued or new) looks least likely to contain a checkable claim. */
+        DROP_LOW_SCORE
+    }
+
+    private static final Pattern CLAIM_SIGNAL = Pattern.compile(
+            "\\d[\\d,.]*%?|\\b(percent|million|billion|trillion|thousand|hundred|half|twice|double|tripled|doubled|"
+                    + "most|majority|average|rate|record|highest|lowest|increase|decrease|rose|fell)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Function<String, CompletableFuture<String>> checker;
+    private final Consumer<String> onResult;
+    private final int capacity;
+    private final int maxInFlight;
+    private final OverloadPolicy policy;
+
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private int inFlight = 0;
+    private long submitted, sent, merged, shed;
+
+    public FactCheckDispatcher(Function<String, CompletableFuture<String>> checker, Consumer<String> onResult,
+                               int capacity, int maxInFlight, OverloadPolicy policy) {
+        if (capacity < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("capacity and maxInFlight must be at least 1");
+        }
+        this.checker = checker;
+        this.onResult = onResult;
+        this.capacity = capacity;
+        this.maxInFlight = maxInFlight;
+        this.policy = policy;
+
+        PipelineMetrics.gauge("dispatch.queueDepth", this::getQueueDepth);
+        PipelineMetrics.gauge("dispatch.inFlight", this::getInFlight);
+        PipelineMetrics.gauge("dispatch.shed", this::getShedCount);
+        PipelineMetrics.gauge("dispatch.merged", this::getMergedCount);
+    }
+
+    public void submit(String batch) {
+        if (batch == null || batch.isBlank()) return;
+        String toSend;
+        synchronized (this) {
+            submitted++;
+            if (queue.size() >= capacity) {
+                applyOverloadPolicy(batch);
+            } else {
+                queue.addLast(batch);
+            }
+            toSend = takeNext();
+        }
+        if (toSend != null) send(toSend);
+    }
+
+    /**
+     * Sends {@code text} immediately if a request slot is free and no batch is waiting, counting it
+     * against {@code maxInFlight}; returns null otherwise. The result goes to the caller only, not to
+     * {@code onResult}. Used for speculative checks, which are worthless once they have to queue.
+     */
+    public CompletableFuture<String> trySend(String text) {
+        synchronized (this) {
+            if (inFlight >= maxInFlight || !queue.isEmpty()) return null;
+            inFlight++;
+            sent++;
+        }
+        CompletableFuture<String> request = start(text);
+        request.whenComplete((result, error) -> release());
+        // Cancelling the caller's copy must not free the slot while the request is still running
+        return request.copy();
+    }
+
+    public synchronized boolean isIdle() {
+        return queue.isEmpty() && inFlight == 0;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getShedCount() {
+        return shed;
+    }
+
+    public synchronized long getMergedCount() {
+        return merged;
+    }
+
+    public synchronized String stats() {
+        return "dispatch: submitted=" + submitted + ", sent=" + sent + ", merged=" + merged + ", shed=" + shed
+                + ", queued=" + queue.size() + ", inFlight=" + inFlight + ", policy=" + policy;
+    }
+
+    private void applyOverloadPolicy(String batch) {
+        switch (policy) {
+            case MERGE -> {
+                // Keep the queue bounded by folding the new batch into the newest queued one,
+                // unless that request would get too large; then the oldest batch has to go
+                String tail = queue.peekLast();
+                if (tail.length() + batch.length() < maxMergedChars()) {
+                    queue.pollLast();
+                    queue.addLast(tail + " " + batch);
+                    merged++;
+                } else {
+                    queue.pollFirst();
+                    queue.addLast(batch);
+                    shed++;
+                    System.out.println("Dispatch queue full and batches too large to merge; dropped oldest batch.");
+                }
+            }
+            case DROP_OLDEST -> {
+                queue.pollFirst();
+                queue.addLast(batch);
+                shed++;
+                System.out.println("Dispatch queue full; dropped oldest batch.");
+            }
+            case DROP_LOW_SCORE -> {
+                // Oldest of the lowest-scoring queued batches, unless the new one scores lower still
+                String lowest = null;
+                int lowestScore = Integer.MAX_VALUE;
+                for (String queued : queue) {
+                    int score = claimScore(queued);
+                    if (score < lowestScore) {
+                        lowest = queued;
+                        lowestScore = score;
+                    }
+                }
+                int newScore = claimScore(batch);
+                if (newScore < lowestScore) {
+                    lowestScore = newScore;
+                } else {
+                    removeIdentity(lowest);
+                    queue.addLast(batch);
+                }
+                shed++;
+                System.out.println("Dispatch queue full; dropped batch with claim score " + lowestScore + ".");
+            }
+        }
+    }
+
+    /** Removes and returns the next request to send, or null if nothing can be sent right now. */
+    private String takeNext() {
+        if (inFlight >= maxInFlight || queue.isEmpty()) return null;
+        String next = queue.pollFirst();
+        if (policy == OverloadPolicy.MERGE) {
+            StringBuilder combined = new StringBuilder(next);
+            int limit = maxMergedChars();
+            while (!queue.isEmpty() && combined.length() + queue.peekFirst().length() < limit) {
+                combined.append(' ').append(queue.pollFirst());
+                merged++;
+            }
+            next = combined.toString();
+        }
+        inFlight++;
+        sent++;
+        return next;
+    }
+
+    private void send(String batch) {
+        start(batch).whenComplete((result, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                onResult.accept("Error during fact-check: " + error.getMessage());
+            } else {
+                onResult.accept(result);
+            }
+            release();
+        });
+    }
+
+    private CompletableFuture<String> start(String text) {
+        try {
+            return checker.apply(text);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void release() {
+        String next;
+        synchronized (this) {
+            inFlight--;
+            next = takeNext();
+        }
+        if (next != null) send(next);
+    }
+
+    /**
+     * Largest merged request, from the live input-token budget. Anything longer would be cut by
+     * {@link TokenEstimator#trimToBudget}, silently losing the oldest merged batches instead of
+     * counting them as shed.
+     */
+    private static int maxMergedChars() {
+        return TokenEstimator.charsForTokens(RuntimeConfig.getInt("gemini.liveInputTokens"));
+    }
+
+    private void removeIdentity(String target) {
+        for (Iterator<String> it = queue.iterator(); it.hasNext(); ) {
+            if (it.next() == target) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    /** Rough likelihood that a batch contains a checkable statistic; numbers weigh more than quantity words. */
+    static int claimScore(String batch) {
+        int score = 0;
+        Matcher m = CLAIM_SIGNAL.matcher(batch);
+        while (m.find()) {
+            score += Character.isDigit(m.group().charAt(0)) ? 3 : 1;
+        }
+        return score;
+    }
+
+    public static OverloadPolicy parsePolicy(String name) {
+        try {
+            return OverloadPolicy.valueOf(name.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown dispatch policy '" + name + "', using MERGE.");
+            return OverloadPolicy.MERGE;
+        }
+    }
+}
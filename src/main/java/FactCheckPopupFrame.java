@@ -1,11 +1,11 @@
 import javax.swing.*;
 import java.awt.*;
-import java.net.URI;
-import java.util.LinkedHashSet;
+import java.io.IOException;
 import java.util.List;
 
 public class FactCheckPopupFrame extends JFrame {
     private JEditorPane messagePane;
+    private static final int SUMMARY_INPUT_TOKEN_BUDGET = 32000;
     private static final String PROMPT = "You are a fast, precise fact-checking AI specializing in analyzing live speech transcripts for claims that can be objectively verified.\n"
             + "\n"
             + "Your task:\n"
@@ -41,7 +41,7 @@ public class FactCheckPopupFrame extends JFrame {
             + "\n"
             + "Begin your analysis immediately upon receiving the transcript.\n";
 
-    public FactCheckPopupFrame(List<String> transcriptList) {
+    public FactCheckPopupFrame(SessionReportExporter report) {
         setTitle("Reveal That BS Result");
         setSize(700, 600);
         setLocationRelativeTo(null);
@@ -60,8 +60,8 @@ public class FactCheckPopupFrame extends JFrame {
         messagePane.setBackground(backgroundColor);
         messagePane.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        // Extract and format transcript
-        String factCheckOutput = callGeminiAndFormat(transcriptList);
+        // Summarize the session from the report on disk
+        String factCheckOutput = callGeminiAndFormat(report);
         messagePane.setText(factCheckOutput);
         messagePane.setCaretPosition(0);
 
@@ -80,36 +80,44 @@ public class FactCheckPopupFrame extends JFrame {
 
         JPanel buttonPanel = new JPanel();
         buttonPanel.setBackground(backgroundColor);
+        if (report != null && Desktop.isDesktopSupported()) {
+            JButton reportButton = new JButton("Open Full Report");
+            reportButton.setFocusPainted(false);
+            reportButton.setBackground(new Color(50, 50, 50));
+            reportButton.setForeground(new Color(220, 220, 220));
+            reportButton.setBorder(BorderFactory.createEmptyBorder(5, 15, 5, 15));
+            reportButton.addActionListener(e -> {
+                try {
+                    Desktop.getDesktop().browse(report.getHtmlPath().toAbsolutePath().toUri());
+                } catch (IOException | UnsupportedOperationException ex) {
+                    System.err.println("Could not open report: " + ex.getMessage());
+                }
+            });
+            buttonPanel.add(reportButton);
+        }
         buttonPanel.add(closeButton);
         add(buttonPanel, BorderLayout.SOUTH);
     }
 
-    private String callGeminiAndFormat(List<String> transcriptList) {
-        String previous = "";
-        LinkedHashSet<String> lines = new LinkedHashSet<>();
-        for (String raw : transcriptList) {
-            String c = raw.trim();
-            if (c.startsWith("[LIVE CAPTION]")) c = c.substring(14).trim();
-            else if (c.matches("^\\[\\d{2}:\\d{2}:\\d{2}]\\s.*"))
-                c = c.replaceFirst("^\\[\\d{2}:\\d{2}:\\d{2}]\\s*", "");
-            if (c.isEmpty() || c.equalsIgnoreCase(previous)) continue;
-            if (!previous.isEmpty() && c.startsWith(previous)) {
-                lines.remove(previous);
-            }
-            lines.add(c);
-            previous = c;
+    private String callGeminiAndFormat(SessionReportExporter report) {
+        if (report == null) {
+            return toHtml("No session report was recorded.");
         }
-        if (lines.isEmpty()) {
-            return toHtml("No finalized captions available yet.");
+        try {
+            // Only the tail that fits the token budget is read back into memory
+            List<String> lines = report.recentTranscript(TokenEstimator.charsForTokens(SUMMARY_INPUT_TOKEN_BUDGET));
+            if (lines.isEmpty()) {
+                return toHtml("No finalized captions available yet.");
+            }
+            String transcript = String.join("\n\n", lines);
+            String result = GeminiAPI.callFactCheckAPIAsync(PROMPT, transcript, SUMMARY_INPUT_TOKEN_BUDGET).join();
+            report.appendSummary(result);
+            return toHtml(result + "\n\nFull report: " + report.getHtmlPath().toAbsolutePath());
+        } catch (IOException e) {
+            return toHtml("Could not read session report: " + e.getMessage());
+        } finally {
+            report.close();
         }
-
-        StringBuilder rawSb = new StringBuilder();
-        for (String ln : lines) rawSb.append(ln).append("\n\n");
-
-        String fullPrompt = PROMPT + "\nTranscript:\n" + rawSb.toString().trim();
-        String result     = GeminiAPI.callFactCheckAPIAsync(fullPrompt).join();
-
-        return toHtml(result);
     }
 
     private String toHtml(String text) {
@@ -131,9 +139,9 @@ public class FactCheckPopupFrame extends JFrame {
                 + "font-family:Sans-Serif;font-size:14px;'>" + escaped + "</body></html>";
     }
 
-    public static void showFactCheckPopup(List<String> transcriptList) {
+    public static void showFactCheckPopup(SessionReportExporter report) {
         SwingUtilities.invokeLater(() -> {
-            FactCheckPopupFrame popup = new FactCheckPopupFrame(transcriptList);
+            FactCheckPopupFrame popup = new FactCheckPopupFrame(report);
             popup.setVisible(true);
         });
     }
@@ -1,8 +1,10 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.awt.geom.RoundRectangle2D;
+import java.util.ArrayDeque;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.html.HTMLDocument;
 import javax.swing.text.html.HTMLEditorKit;
 
@@ -13,7 +15,14 @@ public class FactCheckUI extends JFrame {
     private String currentCaptionText = "";
     private boolean isFirstFactCheck = true;
     private boolean isSummarizing = false;
-    private final List<String> transcriptList = new ArrayList<>();
+    private static final Path REPORT_DIR = Path.of(System.getProperty("factcheck.reports.dir", "reports"));
+    private SessionReportExporter report;
+    private Runnable recheckAction;
+    // The overlay shows only the newest lines and verdicts; the session report on disk has the rest
+    private static final int MAX_OVERLAY_LINES = 200;
+    private static final int MAX_OVERLAY_VERDICTS = 30;
+    private final ArrayDeque<Integer> overlayLineLengths = new ArrayDeque<>();
+    private final ArrayDeque<String> overlayVerdicts = new ArrayDeque<>();
 
     public FactCheckUI() {
         setTitle("🔍 Reveal That BS");
@@ -70,10 +79,15 @@ public class FactCheckUI extends JFrame {
         stopBtn.setEnabled(false);
         startBtn.addActionListener(e -> beginSummarization(startBtn, stopBtn));
         stopBtn.addActionListener(e -> endSummarization(startBtn, stopBtn));
+        JButton recheckBtn = FactCheckUIUtils.createStyledButton("Re-check 30s", new Color(52, 152, 219));
+        recheckBtn.addActionListener(e -> {
+            if (recheckAction != null) recheckAction.run();
+        });
         JPanel buttonPanel = new JPanel();
         buttonPanel.setOpaque(false);
         buttonPanel.add(startBtn);
         buttonPanel.add(stopBtn);
+        buttonPanel.add(recheckBtn);
 
         mainContainer.add(header, BorderLayout.NORTH);
         mainContainer.add(content, BorderLayout.CENTER);
@@ -89,8 +103,14 @@ public class FactCheckUI extends JFrame {
 
     private void beginSummarization(JButton start, JButton stop) {
         transcriptionArea.setText("");
+        overlayLineLengths.clear();
         // keep factCheckPane content intact for next results
-        transcriptList.clear();
+        try {
+            report = SessionReportExporter.open(REPORT_DIR);
+        } catch (IOException e) {
+            System.err.println("Could not open session report in " + REPORT_DIR + ": " + e.getMessage());
+            report = null;
+        }
         isSummarizing = true;
         isFirstFactCheck = true;
         start.setEnabled(false);
@@ -101,51 +121,89 @@ public class FactCheckUI extends JFrame {
         isSummarizing = false;
         start.setEnabled(true);
         stop.setEnabled(false);
-        FactCheckPopupFrame.showFactCheckPopup(transcriptList);
+        FactCheckPopupFrame.showFactCheckPopup(report);
+        report = null;
+    }
+
+    public void setRecheckAction(Runnable recheckAction) {
+        this.recheckAction = recheckAction;
     }
 
     public void updateLiveCaption(String text) {
         SwingUtilities.invokeLater(() -> {
             if (!currentCaptionText.equals(text)) {
+                StartupOrchestrator.markFirstCaption();
                 currentCaptionText = text;
                 liveCaption.setText(text);
                 liveCaption.setCaretPosition(liveCaption.getDocument().getLength());
-                if (isSummarizing) transcriptList.add("[LIVE] " + text.trim());
             }
         });
     }
 
     public void commitFinalTranscript(String text, String timestamp) {
         SwingUtilities.invokeLater(() -> {
-            String entry = String.format("[%s] %s", timestamp, text.trim());
-            transcriptionArea.append(entry + "\n\n");
+            String entry = String.format("[%s] %s", timestamp, text.trim()) + "\n\n";
+            transcriptionArea.append(entry);
+            overlayLineLengths.addLast(entry.length());
+            if (overlayLineLengths.size() > MAX_OVERLAY_LINES) {
+                try {
+                    transcriptionArea.getDocument().remove(0, overlayLineLengths.removeFirst());
+                } catch (BadLocationException ex) {
+                    ex.printStackTrace();
+                }
+            }
             transcriptionArea.setCaretPosition(transcriptionArea.getDocument().getLength());
             liveCaption.setText("");
             currentCaptionText = "";
-            if (isSummarizing) transcriptList.add(entry);
+            if (isSummarizing && report != null) report.appendTranscript(timestamp, text.trim());
         });
     }
 
     public void displayFactCheckResult(String result) {
         SwingUtilities.invokeLater(() -> {
             if (result == null || result.trim().isEmpty() || result.contains("No verifiable")) return;
-            String html = FactCheckUIUtils.formatFactCheckToHtml(result);
-            try {
-                HTMLDocument doc = (HTMLDocument) factCheckPane.getDocument();
-                HTMLEditorKit kit = (HTMLEditorKit) factCheckPane.getEditorKit();
-                if (isFirstFactCheck) {
-                    factCheckPane.setText("<html><body style='color:white;font-family:Segoe UI; font-size:14pt;'>" + html + "</body></html>");
-                    isFirstFactCheck = false;
-                } else {
-                    kit.insertHTML(doc, doc.getLength(), "<br><hr><br>" + html, 0, 0, null);
-                }
-                factCheckPane.setCaretPosition(doc.getLength());
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
+            StartupOrchestrator.markFirstVerdict();
+            appendFactCheckResult(result);
         });
     }
 
+    /**
+     * Shows the outcome of a manual re-check. Unlike live results, "no verifiable claims" is shown
+     * too, since the user asked for this check and is waiting for an answer.
+     */
+    public void displayRecheckResult(String result) {
+        SwingUtilities.invokeLater(() -> {
+            if (result == null || result.trim().isEmpty()) return;
+            appendFactCheckResult(result);
+        });
+    }
+
+    private void appendFactCheckResult(String result) {
+        if (isSummarizing && report != null) report.appendVerdict(result);
+        String html = FactCheckUIUtils.formatFactCheckToHtml(result);
+        try {
+            HTMLDocument doc = (HTMLDocument) factCheckPane.getDocument();
+            HTMLEditorKit kit = (HTMLEditorKit) factCheckPane.getEditorKit();
+            if (isFirstFactCheck) {
+                overlayVerdicts.clear();
+                isFirstFactCheck = false;
+            }
+            overlayVerdicts.addLast(html);
+            if (overlayVerdicts.size() == 1 || overlayVerdicts.size() > MAX_OVERLAY_VERDICTS) {
+                // Verdicts arrive seconds apart, so rebuilding the pane to drop the oldest one is cheap
+                if (overlayVerdicts.size() > MAX_OVERLAY_VERDICTS) overlayVerdicts.removeFirst();
+                factCheckPane.setText("<html><body style='color:white;font-family:Segoe UI; font-size:14pt;'>"
+                        + String.join("<br><hr><br>", overlayVerdicts) + "</body></html>");
+                doc = (HTMLDocument) factCheckPane.getDocument();
+            } else {
+                kit.insertHTML(doc, doc.getLength(), "<br><hr><br>" + html, 0, 0, null);
+            }
+            factCheckPane.setCaretPosition(doc.getLength());
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new FactCheckUI().setVisible(true));
     }
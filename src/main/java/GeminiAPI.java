@@ -14,18 +14,17 @@ import java.util.concurrent.*;
 public class GeminiAPI {
 
     private static String apiKey;
-    // **MODIFICATION**: Changed the model name to the correct 'gemini-pro'.
-    private static final String API_URL =
-            "https://generativelanguage.googleapis.com/v1/models/gemini-2.0-flash-lite:generateContent?key=";
 
     private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
+            .connectTimeout(Duration.ofMillis(RuntimeConfig.getInt("gemini.connectTimeoutMs")))
             .build();
+    // 3 attempts, 500 ms..8 s backoff, open after 5 consecutive failures for 30 s
+    private static final ResilientHttpClient RESILIENT_CLIENT =
+            new ResilientHttpClient(HTTP_CLIENT, 3, 500, 8000, 5, 30_000);
 
     private static final ConcurrentHashMap<String, String> RESPONSE_CACHE = new ConcurrentHashMap<>();
     private static final ScheduledExecutorService CACHE_CLEANER = Executors.newScheduledThreadPool(1);
     private static volatile long lastApiCallTime = 0;
-    private static final long MIN_API_INTERVAL_MS = 1000; // Minimum 1 second between API calls
 
     private static final String SYSTEM_PROMPT = """
             You are a fast fact-checking AI. For each claim, provide:
@@ -60,77 +59,152 @@ public class GeminiAPI {
         }
     }
 
+    /**
+     * Opens the connection to the Gemini host ahead of the first fact-check with a metadata GET,
+     * which costs no tokens. Failures are only logged.
+     */
+    public static void warmUp() {
+        if (!RuntimeConfig.getBoolean("gemini.enabled")) return;
+        long start = System.currentTimeMillis();
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI(modelUrl() + "?key=" + apiKey))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+            int status = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            System.out.println("Gemini connection warmed up in " + (System.currentTimeMillis() - start) + " ms (HTTP " + status + ").");
+        } catch (Exception e) {
+            System.err.println("Gemini warm-up failed: " + e.getMessage());
+        }
+    }
+
     public static CompletableFuture<String> callFactCheckAPIAsync(String transcript) {
+        return callFactCheckAPIAsync(SYSTEM_PROMPT, transcript, RuntimeConfig.getInt("gemini.liveInputTokens"));
+    }
+
+    /**
+     * Fact-checks {@code transcript} with {@code systemPrompt} as the model's system instruction.
+     * The transcript is trimmed to its most recent {@code inputTokenBudget} tokens. The system
+     * prompt goes inline in every request: both prompts in this app are a few hundred tokens, far
+     * below the minimum Gemini accepts for an explicit cachedContents entry.
+     */
+    public static CompletableFuture<String> callFactCheckAPIAsync(String systemPrompt, String transcript, int inputTokenBudget) {
         if (transcript == null || transcript.trim().isEmpty()) {
             return CompletableFuture.completedFuture("No content to fact-check.");
         }
+        if (!RuntimeConfig.getBoolean("gemini.enabled")) {
+            return CompletableFuture.completedFuture(offlineResult(transcript));
+        }
 
-        String normalizedTranscript = transcript.trim().toLowerCase();
-        if (RESPONSE_CACHE.containsKey(normalizedTranscript)) {
-            return CompletableFuture.completedFuture(RESPONSE_CACHE.get(normalizedTranscript));
+        String trimmedTranscript = TokenEstimator.trimToBudget(transcript.trim(), inputTokenBudget);
+        String cacheKey = promptKey(systemPrompt) + ":" + trimmedTranscript.toLowerCase();
+        String cached = RESPONSE_CACHE.get(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
 
         long currentTime = System.currentTimeMillis();
         long timeSinceLastCall = currentTime - lastApiCallTime;
         long delayNeeded = 0;
 
-        if (timeSinceLastCall < MIN_API_INTERVAL_MS) {
-            delayNeeded = MIN_API_INTERVAL_MS - timeSinceLastCall;
+        long minInterval = RuntimeConfig.getInt("gemini.minIntervalMs");
+        if (timeSinceLastCall < minInterval) {
+            delayNeeded = minInterval - timeSinceLastCall;
         }
         lastApiCallTime = currentTime + delayNeeded;
 
         Executor delayedExecutor = CompletableFuture.delayedExecutor(delayNeeded, TimeUnit.MILLISECONDS);
+        int estimatedInputTokens = TokenEstimator.estimate(trimmedTranscript);
 
         return CompletableFuture.supplyAsync(() -> {
-            try {
-                String prompt = SYSTEM_PROMPT + "\n\nFact-check this:\n" + transcript;
-                JSONObject payload = createPayload(prompt);
-
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(new URI(API_URL + apiKey))
-                        .header("Content-Type", "application/json")
-                        .timeout(Duration.ofSeconds(30))
-                        .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
-                        .build();
-
-                return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                        .thenApply(response -> {
-                            if (response.statusCode() != 200) {
-                                return "API Error: HTTP " + response.statusCode() + " - " + response.body();
-                            }
-                            String result = parseResponse(response.body());
-                            if (!result.contains("No verifiable claims")) {
-                                RESPONSE_CACHE.put(normalizedTranscript, result);
-                            }
-                            return result;
-                        }).join();
-
-            } catch (Exception e) {
-                throw new CompletionException(e);
-            }
-        }, delayedExecutor).exceptionally(e -> {
-            System.err.println("API call failed: " + e.getMessage());
-            return "API call failed: " + e.getMessage();
-        });
+                    try {
+                        JSONObject payload = createPayload(systemPrompt, "Fact-check this:\n" + trimmedTranscript);
+                        return HttpRequest.newBuilder()
+                                .uri(new URI(modelUrl() + ":generateContent?key=" + apiKey))
+                                .header("Content-Type", "application/json")
+                                .timeout(Duration.ofMillis(RuntimeConfig.getInt("gemini.requestTimeoutMs")))
+                                .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
+                                .build();
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, delayedExecutor).thenCompose(RESILIENT_CLIENT::send).thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        return "API Error: HTTP " + response.statusCode() + " - " + response.body();
+                    }
+                    String result = parseResponse(response.body(), estimatedInputTokens);
+                    if (!result.contains("No verifiable claims")) {
+                        RESPONSE_CACHE.put(cacheKey, result);
+                        ClaimKnowledgeBase.recordVerdicts(result);
+                    }
+                    return result;
+                }).exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ResilientHttpClient.CircuitOpenException) {
+                        return degradedResult(transcript);
+                    }
+                    System.err.println("API call failed: " + cause.getMessage());
+                    return "API call failed: " + cause.getMessage();
+                });
     }
 
-    private static JSONObject createPayload(String prompt) {
-        JSONObject userMessage = new JSONObject()
-                .put("role", "user")
-                .put("parts", new JSONArray().put(new JSONObject().put("text", prompt)));
+    private static String modelUrl() {
+        return RuntimeConfig.getString("gemini.baseUrl") + "/v1beta/" + RuntimeConfig.getString("gemini.model");
+    }
+
+    private static String promptKey(String systemPrompt) {
+        return Integer.toHexString(systemPrompt.hashCode()) + "-" + systemPrompt.length();
+    }
+
+    /**
+     * Answer used while the Gemini circuit is open: whatever the local knowledge base already knows
+     * about the transcript, or a notice that checking is paused.
+     */
+    private static String degradedResult(String transcript) {
+        String local = knownVerdicts(transcript);
+        if (!local.isEmpty()) {
+            return local;
+        }
+        return "Fact-checking paused: Gemini is currently unavailable. Checks will resume automatically.";
+    }
+
+    /** Answer when Gemini is disabled by configuration (the offline profile): local verdicts only. */
+    private static String offlineResult(String transcript) {
+        String local = knownVerdicts(transcript);
+        return local.isEmpty() ? "No verifiable claims found in the local knowledge base (offline)." : local;
+    }
+
+    private static String knownVerdicts(String transcript) {
+        StringBuilder local = new StringBuilder();
+        for (ClaimKnowledgeBase.Match match : ClaimKnowledgeBase.lookup(transcript)) {
+            local.append(match.verdict()).append("\n\n");
+        }
+        return local.toString().trim();
+    }
+
+    private static JSONObject createPayload(String systemPrompt, String prompt) {
+        JSONObject userMessage = textContent(prompt).put("role", "user");
 
         JSONObject generationConfig = new JSONObject()
                 .put("temperature", 0.2)
-                .put("maxOutputTokens", 500);
+                .put("maxOutputTokens", RuntimeConfig.getInt("gemini.maxOutputTokens"));
 
-        return new JSONObject()
+        JSONObject payload = new JSONObject()
                 .put("contents", new JSONArray().put(userMessage))
-                .put("generationConfig", generationConfig);
+                .put("generationConfig", generationConfig)
+                .put("systemInstruction", textContent(systemPrompt));
+        return payload;
     }
 
-    private static String parseResponse(String responseBody) {
+    private static JSONObject textContent(String text) {
+        return new JSONObject().put("parts", new JSONArray().put(new JSONObject().put("text", text)));
+    }
+
+    private static String parseResponse(String responseBody, int estimatedInputTokens) {
         try {
             JSONObject jsonResponse = new JSONObject(responseBody);
+            recordUsage(jsonResponse.optJSONObject("usageMetadata"), estimatedInputTokens);
             if (jsonResponse.has("candidates")) {
                 JSONArray candidates = jsonResponse.getJSONArray("candidates");
                 if (!candidates.isEmpty()) {
@@ -147,6 +221,20 @@ public class GeminiAPI {
         }
     }
 
+    /** Per-request token accounting from Gemini's usageMetadata, also accumulated in {@link PipelineMetrics}. */
+    private static void recordUsage(JSONObject usage, int estimatedInputTokens) {
+        if (usage == null) return;
+        int input = usage.optInt("promptTokenCount", 0);
+        int cached = usage.optInt("cachedContentTokenCount", 0);
+        int output = usage.optInt("candidatesTokenCount", 0);
+        PipelineMetrics.increment("gemini.requests");
+        PipelineMetrics.add("gemini.inputTokens", input);
+        PipelineMetrics.add("gemini.cachedInputTokens", cached);
+        PipelineMetrics.add("gemini.outputTokens", output);
+        System.out.println("Gemini tokens: input=" + input + " (cached " + cached + ", transcript est. "
+                + estimatedInputTokens + "), output=" + output);
+    }
+
     public static void shutdown() {
         CACHE_CLEANER.shutdown();
     }
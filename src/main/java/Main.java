@@ -1,10 +1,33 @@
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Path;
 
 public class Main{
     public static void main(String[] args) {
-        GeminiAPI.loadEnvFromFile("C:\\Users\\justi\\IdeaProjects\\DesktopAI\\.env");
-        RealTimeTranscription transcriber = new RealTimeTranscription();
-        Runtime.getRuntime().addShutdownHook(new Thread(transcriber::stop));
+        RuntimeConfig.startWatching();
+        try {
+            GeminiAPI.loadEnvFromFile(RuntimeConfig.getString("env.file"));
+        } catch (RuntimeException e) {
+            // A CDS training run only needs the classes loaded, and the offline profile never calls Gemini
+            if (!StartupOrchestrator.isTrainingRun() && RuntimeConfig.getBoolean("gemini.enabled")) throw e;
+            System.err.println(e.getMessage());
+        }
+        ClaimKnowledgeBase.load(Path.of(System.getProperty("factcheck.kb", "claims.kb")));
+        String curatedClaims = System.getProperty("factcheck.kb.import");
+        if (curatedClaims != null) {
+            try {
+                ClaimKnowledgeBase.importCurated(Path.of(curatedClaims));
+            } catch (IOException e) {
+                System.err.println("Could not import curated claims: " + e.getMessage());
+            }
+        }
+        PipelineMetrics.startReporting(30);
+        RealTimeTranscription transcriber = StartupOrchestrator.warmStart();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            transcriber.stop();
+            ClaimKnowledgeBase.save();
+            PipelineMetrics.stopReporting();
+        }));
         transcriber.start();
     }
 
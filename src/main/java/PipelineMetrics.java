@@ -0,0 +1,59 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide counters and gauges for the capture / fact-check pipeline, printed periodically
+ * to stdout alongside the rest of the app's logging.
+ */
+public class PipelineMetrics {
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Supplier<?>> GAUGES = new ConcurrentSkipListMap<>();
+    private static ScheduledExecutorService reporter;
+
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    public static void add(String name, long delta) {
+        COUNTERS.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    public static long get(String name) {
+        LongAdder counter = COUNTERS.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /** Registers a value that is read each time a snapshot is taken. */
+    public static void gauge(String name, Supplier<?> value) {
+        GAUGES.put(name, value);
+    }
+
+    public static String snapshot() {
+        StringBuilder sb = new StringBuilder("[metrics]");
+        COUNTERS.forEach((name, counter) -> sb.append(' ').append(name).append('=').append(counter.sum()));
+        GAUGES.forEach((name, value) -> sb.append(' ').append(name).append('=').append(value.get()));
+        return sb.toString();
+    }
+
+    public static synchronized void startReporting(long periodSeconds) {
+        if (reporter != null) return;
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println(snapshot()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopReporting() {
+        if (reporter == null) return;
+        reporter.shutdownNow();
+        reporter = null;
+        System.out.println(snapshot());
+    }
+}
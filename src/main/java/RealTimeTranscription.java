@@ -1,3 +1,7 @@
+import com.google.cloud.speech.v1.SpeechClient;
+
+import java.util.concurrent.CompletableFuture;
+
 public class RealTimeTranscription {
 
     private final Transcription transcription;
@@ -6,6 +10,11 @@ public class RealTimeTranscription {
     public RealTimeTranscription() {
         this.factCheckUI = new FactCheckUI();
         this.transcription = new Transcription(factCheckUI); // prints raw transcription
+        this.factCheckUI.setRecheckAction(() -> transcription.recheckLast(30));
+    }
+
+    public void usePrewarmedSpeechClient(CompletableFuture<SpeechClient> speechClient) {
+        transcription.usePrewarmedSpeechClient(speechClient);
     }
 
     public void start() {
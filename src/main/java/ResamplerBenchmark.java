@@ -0,0 +1,62 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Standalone benchmark for {@link AudioResampler}: pushes synthetic native-format audio through
+ * the resampler in capture-sized buffers and reports how much of one core it needs to keep up.
+ *
+ * Usage: ResamplerBenchmark [inputRate] [channels] [seconds]
+ */
+public class ResamplerBenchmark {
+    private static final int OUTPUT_RATE = 16000;
+    private static final int CAPTURE_MS = 128;
+
+    public static void main(String[] args) {
+        int inputRate = args.length > 0 ? Integer.parseInt(args[0]) : 48000;
+        int channels = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 600;
+
+        int frameSize = 2 * channels;
+        int bufferBytes = inputRate * CAPTURE_MS / 1000 * frameSize;
+        byte[] input = new byte[bufferBytes];
+        fillTone(input, inputRate, channels);
+
+        AudioResampler resampler = new AudioResampler(inputRate, channels, false, OUTPUT_RATE, bufferBytes);
+        byte[] output = new byte[resampler.maxOutputBytes(bufferBytes)];
+        int buffersPerRun = seconds * 1000 / CAPTURE_MS;
+
+        // Warm-up so the measured run sees JIT-compiled code
+        for (int i = 0; i < 2000; i++) resampler.process(input, input.length, output);
+        resampler.reset();
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long wallStart = System.nanoTime();
+        long outBytes = 0;
+        for (int i = 0; i < buffersPerRun; i++) {
+            outBytes += resampler.process(input, input.length, output);
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+        long cpuNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+
+        double audioSeconds = buffersPerRun * (double) CAPTURE_MS / 1000.0;
+        double coreFraction = cpuNanos / (audioSeconds * 1e9);
+        System.out.printf("Resampled %.0f s of %d Hz x%d audio to %d Hz (%d output samples)%n",
+                audioSeconds, inputRate, channels, OUTPUT_RATE, outBytes / 2);
+        System.out.printf("Wall: %.1f ms, CPU: %.1f ms, %.1fx faster than real time%n",
+                wallNanos / 1e6, cpuNanos / 1e6, audioSeconds * 1e9 / wallNanos);
+        System.out.printf("Load while capturing live: %.3f%% of one core%n", coreFraction * 100.0);
+    }
+
+    private static void fillTone(byte[] buffer, int rate, int channels) {
+        int frames = buffer.length / (2 * channels);
+        int pos = 0;
+        for (int f = 0; f < frames; f++) {
+            short s = (short) (12000 * Math.sin(2 * Math.PI * 440 * f / rate) + 4000 * Math.sin(2 * Math.PI * 3100 * f / rate));
+            for (int c = 0; c < channels; c++) {
+                buffer[pos++] = (byte) s;
+                buffer[pos++] = (byte) (s >> 8);
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps {@link HttpClient#sendAsync} with the failure handling a live fact-check needs:
+ * <ul>
+ *   <li>Hedging: if a response has not arrived after the recent p95 latency (a fixed default until
+ *   enough latencies are known), a duplicate request is sent and whichever answers first wins.</li>
+ *   <li>Retries with exponential backoff and equal jitter (a random wait between half and all of the
+ *   backoff) on 429/5xx and I/O errors, honoring {@code Retry-After}. Timeouts are not retried: the
+ *   request has already used its whole budget.</li>
+ *   <li>A circuit breaker that fails fast with {@link CircuitOpenException} while the endpoint is
+ *   unhealthy, so callers can degrade to local answers.</li>
+ * </ul>
+ * Hedge copies and retries are sent from here directly, so they do not go through the caller's
+ * rate limiting ({@code gemini.minIntervalMs} in {@link GeminiAPI}). Each request adds at most one
+ * hedge copy, and retries are paced by the backoff above.
+ */
+public class ResilientHttpClient {
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_SAMPLES_FOR_HEDGING = 20;
+    private static final long MIN_HEDGE_DELAY_MS = 250;
+    private static final long DEFAULT_HEDGE_DELAY_MS = 2000; // until MIN_SAMPLES_FOR_HEDGING latencies are known
+
+    private final HttpClient client;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final int failureThreshold;
+    private final long openDurationMs;
+
+    // Latency ring buffer of successful responses, used for the hedge delay
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount = 0;
+    private int latencyNext = 0;
+
+    private enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean trialInFlight = false;
+
+    /** Thrown (wrapped in a {@link CompletionException}) when the circuit is open. */
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    public ResilientHttpClient(HttpClient client, int maxAttempts, long baseBackoffMs, long maxBackoffMs,
+                               int failureThreshold, long openDurationMs) {
+        this.client = client;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+
+        PipelineMetrics.gauge("gemini.circuit", this::getCircuitState);
+        PipelineMetrics.gauge("gemini.p95Ms", this::p95LatencyMs);
+    }
+
+    public synchronized String getCircuitState() {
+        return state.name();
+    }
+
+    /**
+     * Sends {@code request}, retrying and hedging as configured. The returned future completes with
+     * the first acceptable response, the last retryable response once attempts are exhausted, or
+     * exceptionally with {@link CircuitOpenException} / the final I/O error.
+     */
+    public CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        if (!allowRequest()) {
+            PipelineMetrics.increment("gemini.shortCircuited");
+            return CompletableFuture.failedFuture(new CircuitOpenException("Gemini circuit is open; failing fast"));
+        }
+        return attempt(request, 1);
+    }
+
+    private CompletableFuture<HttpResponse<String>> attempt(HttpRequest request, int attemptNumber) {
+        return hedged(request).handle((response, error) -> {
+            Throwable cause = unwrap(error);
+            boolean retryable = cause != null
+                    ? cause instanceof IOException && !(cause instanceof HttpTimeoutException)
+                    : isRetryable(response.statusCode());
+            if (!retryable) {
+                if (cause == null) recordSuccess();
+                else recordFailure();
+                return cause == null
+                        ? CompletableFuture.completedFuture(response)
+                        : CompletableFuture.<HttpResponse<String>>failedFuture(cause);
+            }
+
+            recordFailure();
+            if (attemptNumber >= maxAttempts || !allowRetry()) {
+                return cause == null
+                        ? CompletableFuture.completedFuture(response)
+                        : CompletableFuture.<HttpResponse<String>>failedFuture(cause);
+            }
+
+            long delay = backoffDelayMs(attemptNumber, response);
+            if (delay < 0) {
+                // Server asked us to wait longer than we are willing to; give up now
+                return CompletableFuture.completedFuture(response);
+            }
+            PipelineMetrics.increment("gemini.retries");
+            System.out.println("Gemini request failed (" + (cause != null ? cause.getMessage() : "HTTP " + response.statusCode())
+                    + "); retry " + attemptNumber + " in " + delay + " ms.");
+            return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> attempt(request, attemptNumber + 1));
+        }).thenCompose(f -> f);
+    }
+
+    /**
+     * Sends the request and, if it is still outstanding after the hedge delay, a duplicate of it.
+     * The first acceptable response wins; a failure only counts once no copy is left in flight.
+     */
+    private CompletableFuture<HttpResponse<String>> hedged(HttpRequest request) {
+        CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        CompletableFuture<HttpResponse<String>> primary = timed(request);
+        primary.whenComplete((response, error) -> onCopyDone(result, outstanding, response, error, false));
+
+        CompletableFuture.delayedExecutor(hedgeDelayMs(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone()) return;
+            outstanding.incrementAndGet();
+            PipelineMetrics.increment("gemini.hedges");
+            CompletableFuture<HttpResponse<String>> hedge = timed(request);
+            hedge.whenComplete((response, error) -> onCopyDone(result, outstanding, response, error, true));
+            result.whenComplete((response, error) -> hedge.cancel(true));
+        });
+        result.whenComplete((response, error) -> primary.cancel(true));
+        return result;
+    }
+
+    private static void onCopyDone(CompletableFuture<HttpResponse<String>> result, AtomicInteger outstanding,
+                                   HttpResponse<String> response, Throwable error, boolean isHedge) {
+        boolean acceptable = error == null && !isRetryable(response.statusCode());
+        boolean last = outstanding.decrementAndGet() == 0;
+        if (!acceptable && !last) return;
+        boolean won = error == null ? result.complete(response) : result.completeExceptionally(error);
+        if (won && isHedge && acceptable) PipelineMetrics.increment("gemini.hedgeWins");
+    }
+
+    private CompletableFuture<HttpResponse<String>> timed(HttpRequest request) {
+        long start = System.nanoTime();
+        // Return the client's own future so cancelling it aborts the exchange
+        CompletableFuture<HttpResponse<String>> exchange = client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        exchange.whenComplete((response, error) -> {
+            if (error == null && response.statusCode() == 200) {
+                recordLatency((System.nanoTime() - start) / 1_000_000);
+            }
+        });
+        return exchange;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /**
+     * Exponential backoff with full jitter, or the server's Retry-After if it sent one.
+     * Returns -1 if Retry-After exceeds {@code maxBackoffMs}.
+     */
+    private long backoffDelayMs(int attemptNumber, HttpResponse<String> response) {
+        if (response != null) {
+            long retryAfter = parseRetryAfterMs(response);
+            if (retryAfter >= 0) return retryAfter <= maxBackoffMs ? retryAfter : -1;
+        }
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attemptNumber - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private static long parseRetryAfterMs(HttpResponse<String> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) return -1;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException ignored) {
+            // Not delta-seconds; try an HTTP date
+        }
+        try {
+            ZonedDateTime when = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(when.getZone()), when).toMillis());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private synchronized long hedgeDelayMs() {
+        if (latencyCount < MIN_SAMPLES_FOR_HEDGING) return DEFAULT_HEDGE_DELAY_MS;
+        return Math.max(MIN_HEDGE_DELAY_MS, p95LatencyMs());
+    }
+
+    public synchronized long p95LatencyMs() {
+        if (latencyCount == 0) return 0;
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        return sorted[Math.min(latencyCount - 1, (int) Math.ceil(latencyCount * 0.95) - 1)];
+    }
+
+    private synchronized void recordLatency(long millis) {
+        latencies[latencyNext] = millis;
+        latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+        if (latencyCount < LATENCY_WINDOW) latencyCount++;
+    }
+
+    private synchronized boolean allowRequest() {
+        if (state == CircuitState.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+            state = CircuitState.HALF_OPEN;
+            trialInFlight = false;
+            System.out.println("Gemini circuit half-open; sending a trial request.");
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) yield false;
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /** Retries are pointless once the breaker has opened in the meantime. */
+    private synchronized boolean allowRetry() {
+        return state == CircuitState.CLOSED;
+    }
+
+    private synchronized void recordSuccess() {
+        if (state != CircuitState.CLOSED) {
+            System.out.println("Gemini circuit closed; endpoint healthy again.");
+        }
+        state = CircuitState.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == CircuitState.HALF_OPEN || (state == CircuitState.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = CircuitState.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+            PipelineMetrics.increment("gemini.circuitOpened");
+            System.err.println("Gemini circuit opened after " + consecutiveFailures + " consecutive failures.");
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
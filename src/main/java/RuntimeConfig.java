@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Tuning knobs for the pipeline, resolved from (highest first) a {@code -D} system property, the
+ * config file, the selected profile, and the built-in default.
+ *
+ * The config file ({@code -Dfactcheck.config}, default {@code factcheck.properties}) is a
+ * properties file that names a {@code profile} and may override individual keys. It is watched and
+ * re-read when it changes. Keys marked hot are read at the point of use and take effect
+ * immediately; the rest keep their startup value, which is also what metrics report, and a change to
+ * them is logged as needing a restart.
+ * Values are range-checked here: at startup an invalid value falls back to its default, and a
+ * reload containing one is rejected as a whole so the running values stay in effect.
+ */
+public class RuntimeConfig {
+    private static final Path CONFIG_FILE = Path.of(System.getProperty("factcheck.config", "factcheck.properties"));
+    private static final String DEFAULT_PROFILE = "default";
+
+    /** A knob; numeric keys have a {@code min..max} range, choice keys a fixed set of values. */
+    private record Key(String defaultValue, boolean hot, boolean numeric, int min, int max, Set<String> choices) {}
+
+    private record Resolution(Map<String, String> values, List<String> errors, List<String> warnings) {}
+
+    private static final Map<String, Key> KEYS = new LinkedHashMap<>();
+    private static final Map<String, Map<String, String>> PROFILES = new LinkedHashMap<>();
+
+    static {
+        key("env.file", ".env", false);
+        intKey("asr.sampleRate", "16000", false, 8000, 48000);
+        intKey("asr.bufferBytes", "4096", true, 320, 32000); // bytes of ASR-rate mono audio per request (128 ms at 16 kHz)
+        key("asr.recordFile", "", false); // when set, recognition responses are recorded for AsrReplayBenchmark
+        intKey("factcheck.pauseTimeoutMs", "800", true, 100, 10_000);
+        intKey("factcheck.batchSize", "3", true, 1, 50);
+        choiceKey("factcheck.speculative", "false", false, "true", "false");
+        intKey("factcheck.speculative.stableMs", "600", false, 100, 10_000);
+        intKey("factcheck.queue.capacity", "4", false, 1, 100);
+        intKey("factcheck.queue.maxInFlight", "2", false, 1, 16);
+        choiceKey("factcheck.queue.policy", "MERGE", false, "MERGE", "DROP_OLDEST", "DROP_LOW_SCORE");
+        intKey("factcheck.archive.minutes", "10", false, 0, 120);
+        choiceKey("gemini.enabled", "true", true, "true", "false");
+        key("gemini.baseUrl", "https://generativelanguage.googleapis.com", true);
+        key("gemini.model", "models/gemini-2.0-flash-lite", true);
+        intKey("gemini.minIntervalMs", "1000", true, 0, 60_000);
+        intKey("gemini.connectTimeoutMs", "10000", false, 500, 120_000);
+        intKey("gemini.requestTimeoutMs", "30000", true, 1000, 300_000);
+        intKey("gemini.maxOutputTokens", "500", true, 16, 8192);
+        intKey("gemini.liveInputTokens", "1000", true, 100, 100_000);
+
+        profile(DEFAULT_PROFILE);
+        // Smallest audio chunks and shortest waits; spends more requests to get verdicts sooner
+        profile("low-latency",
+                "asr.bufferBytes", "2048",
+                "factcheck.pauseTimeoutMs", "500",
+                "factcheck.batchSize", "1",
+                "factcheck.speculative", "true",
+                "factcheck.queue.maxInFlight", "3",
+                "gemini.minIntervalMs", "250",
+                "gemini.maxOutputTokens", "300");
+        // Larger batches, fewer and smaller Gemini requests
+        profile("low-cost",
+                "factcheck.pauseTimeoutMs", "1200",
+                "factcheck.batchSize", "5",
+                "factcheck.queue.maxInFlight", "1",
+                "gemini.minIntervalMs", "3000",
+                "gemini.maxOutputTokens", "300",
+                "gemini.liveInputTokens", "600");
+        // No Gemini calls at all; only the local claim knowledge base answers
+        profile("offline",
+                "gemini.enabled", "false",
+                "factcheck.speculative", "false");
+    }
+
+    private static volatile Map<String, String> active = initialValues();
+    // What the non-hot keys were read as; the pipeline keeps using these until restart
+    private static final Map<String, String> STARTUP = active;
+    private static Thread watcher;
+    private static String lastReloadProblems = "";
+
+    static {
+        PipelineMetrics.gauge("config.profile", () -> profile() + (restartPending() ? "(restart-pending)" : ""));
+        for (Map.Entry<String, Key> entry : KEYS.entrySet()) {
+            String name = entry.getKey();
+            if (entry.getValue().hot()) {
+                PipelineMetrics.gauge("config." + name, () -> active.get(name));
+            } else {
+                PipelineMetrics.gauge("config." + name, () -> inUse(name));
+            }
+        }
+    }
+
+    private static void key(String name, String defaultValue, boolean hot) {
+        KEYS.put(name, new Key(defaultValue, hot, false, 0, 0, Set.of()));
+    }
+
+    private static void intKey(String name, String defaultValue, boolean hot, int min, int max) {
+        KEYS.put(name, new Key(defaultValue, hot, true, min, max, Set.of()));
+    }
+
+    private static void choiceKey(String name, String defaultValue, boolean hot, String... choices) {
+        KEYS.put(name, new Key(defaultValue, hot, false, 0, 0, Set.of(choices)));
+    }
+
+    private static void profile(String name, String... overrides) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < overrides.length; i += 2) {
+            values.put(overrides[i], overrides[i + 1]);
+        }
+        PROFILES.put(name, values);
+    }
+
+    public static String getString(String name) {
+        Key key = KEYS.get(name);
+        if (key == null) throw new IllegalArgumentException("Unknown config key: " + name);
+        // A reloaded non-hot value waits for a restart even if the key is read again later
+        return (key.hot() ? active : STARTUP).get(name);
+    }
+
+    public static int getInt(String name) {
+        // Validated when resolved, so this cannot fail for numeric keys
+        return Integer.parseInt(getString(name));
+    }
+
+    /** Largest value a numeric key accepts, for sizing buffers that must fit any reload. */
+    public static int maxInt(String name) {
+        Key key = KEYS.get(name);
+        if (key == null || !key.numeric()) throw new IllegalArgumentException("Not a numeric config key: " + name);
+        return key.max();
+    }
+
+    public static boolean getBoolean(String name) {
+        return Boolean.parseBoolean(getString(name).trim());
+    }
+
+    public static String profile() {
+        return active.get("profile");
+    }
+
+    /** The value a non-hot key is running with, and the reloaded one if it differs; no spaces, to keep metrics lines splittable. */
+    private static String inUse(String name) {
+        String running = STARTUP.get(name);
+        String pending = active.get(name);
+        return running.equals(pending) ? running : running + "(pending:" + pending + ")";
+    }
+
+    private static boolean restartPending() {
+        for (Map.Entry<String, Key> entry : KEYS.entrySet()) {
+            String name = entry.getKey();
+            if (!entry.getValue().hot() && !STARTUP.get(name).equals(active.get(name))) return true;
+        }
+        return false;
+    }
+
+    /** Starts watching the config file's directory for changes. Safe to call more than once. */
+    public static synchronized void startWatching() {
+        if (watcher != null) return;
+        Path dir = CONFIG_FILE.toAbsolutePath().getParent();
+        WatchService watchService;
+        try {
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("Config file will not be watched: " + e.getMessage());
+            return;
+        }
+        Path fileName = CONFIG_FILE.getFileName();
+        watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean relevant = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (fileName.equals(event.context())) relevant = true;
+                    }
+                    key.reset();
+                    if (relevant) {
+                        // Editors often write in several steps; let them finish
+                        Thread.sleep(100);
+                        reload();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        System.out.println("Config: profile " + profile() + ", watching " + CONFIG_FILE.toAbsolutePath() + ".");
+    }
+
+    static void reload() {
+        Resolution resolution = resolve(readFile());
+        // Editors fire several events per save; report each distinct problem set only once
+        List<String> problems = new ArrayList<>(resolution.errors());
+        problems.addAll(resolution.warnings());
+        String problemText = String.join("; ", problems);
+        boolean newProblems = !problemText.equals(lastReloadProblems);
+        lastReloadProblems = problemText;
+        if (!resolution.errors().isEmpty()) {
+            if (newProblems) {
+                System.err.println("Config change rejected, keeping current values: " + problemText);
+            }
+            return;
+        }
+        if (newProblems && !problems.isEmpty()) {
+            System.err.println("Config warnings: " + problemText);
+        }
+
+        Map<String, String> previous = active;
+        Map<String, String> next = resolution.values();
+        List<String> changes = new ArrayList<>();
+        if (!Objects.equals(previous.get("profile"), next.get("profile"))) {
+            changes.add("profile: " + previous.get("profile") + " -> " + next.get("profile"));
+        }
+        for (Map.Entry<String, Key> entry : KEYS.entrySet()) {
+            String old = previous.get(entry.getKey());
+            String value = next.get(entry.getKey());
+            if (Objects.equals(old, value)) continue;
+            String restartNote = entry.getValue().hot() ? "" : " (applies after restart)";
+            changes.add(entry.getKey() + ": " + old + " -> " + value + restartNote);
+        }
+        if (changes.isEmpty()) return;
+        active = next;
+        System.out.println("Config reloaded: " + String.join(", ", changes));
+    }
+
+    private static Properties readFile() {
+        Properties file = new Properties();
+        if (!Files.isRegularFile(CONFIG_FILE)) return file;
+        try (InputStream in = Files.newInputStream(CONFIG_FILE)) {
+            file.load(in);
+        } catch (IOException e) {
+            System.err.println("Could not read " + CONFIG_FILE + ": " + e.getMessage());
+        }
+        return file;
+    }
+
+    /** Startup values: invalid entries fall back to their defaults since there is nothing to keep. */
+    private static Map<String, String> initialValues() {
+        Resolution resolution = resolve(readFile());
+        for (String error : resolution.errors()) {
+            System.err.println("Config: " + error + "; using the default.");
+        }
+        for (String warning : resolution.warnings()) {
+            System.err.println("Config: " + warning + ".");
+        }
+        return resolution.values();
+    }
+
+    private static Resolution resolve(Properties file) {
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        String profileName = System.getProperty("factcheck.profile", file.getProperty("profile", DEFAULT_PROFILE)).trim();
+        Map<String, String> profile = PROFILES.get(profileName);
+        if (profile == null) {
+            errors.add("unknown profile '" + profileName + "', expected one of " + PROFILES.keySet());
+            profileName = DEFAULT_PROFILE;
+            profile = PROFILES.get(DEFAULT_PROFILE);
+        }
+
+        Map<String, String> values = new HashMap<>();
+        values.put("profile", profileName);
+        for (Map.Entry<String, Key> entry : KEYS.entrySet()) {
+            String name = entry.getKey();
+            Key key = entry.getValue();
+            String value = System.getProperty(name);
+            if (value == null) value = file.getProperty(name);
+            if (value == null) value = profile.get(name);
+            if (value == null) value = key.defaultValue();
+            value = canonicalChoice(key, value.trim());
+            String error = validate(key, value);
+            if (error != null) {
+                errors.add(name + "=" + value + " " + error);
+                value = key.defaultValue();
+            }
+            values.put(name, value);
+        }
+        for (String name : file.stringPropertyNames()) {
+            if (!name.equals("profile") && !KEYS.containsKey(name)) {
+                warnings.add("ignoring unknown key " + name + " in " + CONFIG_FILE);
+            }
+        }
+        return new Resolution(Map.copyOf(values), errors, warnings);
+    }
+
+    /** Choice values are matched ignoring case and '-' vs '_', so "drop-oldest" means DROP_OLDEST. */
+    private static String canonicalChoice(Key key, String value) {
+        for (String choice : key.choices()) {
+            if (choice.equalsIgnoreCase(value.replace('-', '_'))) return choice;
+        }
+        return value;
+    }
+
+    /** Returns why {@code value} is not acceptable for {@code key}, or null if it is. */
+    private static String validate(Key key, String value) {
+        if (key.numeric()) {
+            int number;
+            try {
+                number = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return "is not a whole number";
+            }
+            if (number < key.min() || number > key.max()) {
+                return "is outside " + key.min() + ".." + key.max();
+            }
+        } else if (!key.choices().isEmpty() && !key.choices().contains(value)) {
+            return "is not one of " + key.choices();
+        }
+        return null;
+    }
+}
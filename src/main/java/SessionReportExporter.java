@@ -0,0 +1,150 @@
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a summarize session to disk as it happens: one JSONL file for tools and one
+ * self-contained HTML file for people. Every record is written and flushed immediately, so the
+ * files can be opened while the session is still running, and nothing is kept in memory, so heap
+ * use does not grow with session length.
+ */
+public class SessionReportExporter implements AutoCloseable {
+    private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final String HTML_HEADER = """
+            <!DOCTYPE html>
+            <html><head><meta charset="utf-8"><title>Reveal That BS - Session %s</title>
+            <style>
+            body{background:#1e1e1e;color:#dcdcdc;font-family:Segoe UI,Sans-Serif;font-size:15px;max-width:900px;margin:auto;padding:16px}
+            .line{margin:4px 0}.ts{color:#888;margin-right:6px}
+            .verdict,.summary{border-left:3px solid #85C1E9;background:#262626;margin:10px 0;padding:8px 12px}
+            .summary{border-color:#FFA500}.label{color:#85C1E9;font-weight:bold}
+            </style></head><body>
+            <h2>Session %s</h2>
+            """;
+
+    private final Path jsonlPath;
+    private final Path htmlPath;
+    private final BufferedWriter jsonl;
+    private final BufferedWriter html;
+    private boolean closed = false;
+
+    private SessionReportExporter(Path jsonlPath, Path htmlPath) throws IOException {
+        this.jsonlPath = jsonlPath;
+        this.htmlPath = htmlPath;
+        this.jsonl = Files.newBufferedWriter(jsonlPath, StandardCharsets.UTF_8);
+        this.html = Files.newBufferedWriter(htmlPath, StandardCharsets.UTF_8);
+    }
+
+    /** Creates {@code session-<timestamp>.jsonl} and {@code .html} in {@code directory}. */
+    public static SessionReportExporter open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String stamp = LocalDateTime.now().format(FILE_NAME_FORMATTER);
+        SessionReportExporter exporter = new SessionReportExporter(
+                directory.resolve("session-" + stamp + ".jsonl"), directory.resolve("session-" + stamp + ".html"));
+        exporter.html.write(String.format(HTML_HEADER, stamp, stamp));
+        exporter.html.flush();
+        System.out.println("Writing session report to " + exporter.htmlPath.toAbsolutePath());
+        return exporter;
+    }
+
+    public Path getJsonlPath() {
+        return jsonlPath;
+    }
+
+    public Path getHtmlPath() {
+        return htmlPath;
+    }
+
+    public synchronized void appendTranscript(String timestamp, String text) {
+        writeRecord("transcript", timestamp, text,
+                "<p class='line'><span class='ts'>[" + escape(timestamp) + "]</span>" + escape(text) + "</p>");
+    }
+
+    public synchronized void appendVerdict(String verdict) {
+        writeRecord("verdict", LocalTime.now().format(TIME_FORMATTER), verdict,
+                "<div class='verdict'>" + formatVerdict(verdict) + "</div>");
+    }
+
+    public synchronized void appendSummary(String summary) {
+        writeRecord("summary", LocalTime.now().format(TIME_FORMATTER), summary,
+                "<div class='summary'><span class='label'>Session summary</span><br/>" + formatVerdict(summary) + "</div>");
+    }
+
+    /**
+     * Reads back the most recent transcript lines, up to {@code maxChars} in total, by streaming
+     * the JSONL file rather than keeping the session in memory.
+     */
+    public synchronized List<String> recentTranscript(int maxChars) throws IOException {
+        flush();
+        ArrayDeque<String> lines = new ArrayDeque<>();
+        int chars = 0;
+        try (BufferedReader reader = Files.newBufferedReader(jsonlPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JSONObject record = new JSONObject(line);
+                if (!"transcript".equals(record.optString("type"))) continue;
+                String text = record.optString("text", "");
+                lines.addLast(text);
+                chars += text.length();
+                while (chars > maxChars && lines.size() > 1) {
+                    chars -= lines.removeFirst().length();
+                }
+            }
+        }
+        return new ArrayList<>(lines);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            html.write("</body></html>\n");
+            html.close();
+            jsonl.close();
+        } catch (IOException e) {
+            System.err.println("Could not finish session report: " + e.getMessage());
+        }
+    }
+
+    private void writeRecord(String type, String time, String text, String htmlFragment) {
+        if (closed) return;
+        try {
+            jsonl.write(new JSONObject().put("type", type).put("time", time).put("text", text).toString());
+            jsonl.newLine();
+            html.write(htmlFragment);
+            html.newLine();
+            flush();
+        } catch (IOException e) {
+            System.err.println("Could not write session report: " + e.getMessage());
+        }
+    }
+
+    private void flush() throws IOException {
+        if (closed) return;
+        jsonl.flush();
+        html.flush();
+    }
+
+    private static String formatVerdict(String text) {
+        return escape(text)
+                .replaceAll("\\*\\*(Claim|Rating|Reason|Sources|Final Grade)\\*\\*:", "<span class='label'>$1:</span>")
+                .replaceAll("\\r?\\n", "<br/>");
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Starts a fact-check on interim ASR text as soon as a prefix of it has stopped changing,
+ * instead of waiting for the final result.
+ *
+ * Each word of the interim transcript remembers when it last changed. Once at least
+ * {@code minWords} leading words have been stable for {@code stableWindowMs}, that prefix is
+ * sent, cut back to the last sentence end unless the whole interim text is stable. When the final result arrives it is reconciled against the speculated prefix:
+ * <ul>
+ *   <li>Same words (small edits allowed) and identical numbers: the speculative verdict is kept and
+ *   displayed as soon as it is available. Only the part of the final text past the prefix still
+ *   needs normal checking.</li>
+ *   <li>Material divergence: the in-flight request is cancelled, any verdict it produces is
+ *   discarded and the whole final text goes through normal batching.</li>
+ * </ul>
+ * A verdict that arrives before the final result is held until reconciliation decides on it.
+ */
+public class SpeculativeFactCheck {
+    private static final double MAX_WORD_EDIT_RATIO = 0.15;
+
+    private final int stableWindowMs;
+    private final int minWords;
+    private final Function<String, CompletableFuture<String>> checker;
+    private final Consumer<String> display;
+    private final Consumer<String> fallback;
+
+    private String[] interimWords = new String[0];
+    private long[] wordStableSince = new long[0];
+    private Speculation current; // awaiting reconciliation with the final result
+
+    private int started, confirmedCount, discarded;
+
+    private static final class Speculation {
+        final String[] words;
+        final String text;
+        CompletableFuture<String> future;
+        boolean confirmed;
+        boolean discarded;
+        boolean failed;
+        String heldVerdict;
+
+        Speculation(String[] words) {
+            this.words = words;
+            this.text = String.join(" ", words);
+        }
+    }
+
+    /**
+     * @param checker  sends text for fact-checking, or returns null when no request can be spared
+     * @param display  shows a reconciled verdict
+     * @param fallback receives confirmed text whose speculative check failed, so it can be checked normally;
+     *                 it may be called on the thread that completed the speculative request
+     */
+    public SpeculativeFactCheck(int stableWindowMs, int minWords,
+                                Function<String, CompletableFuture<String>> checker,
+                                Consumer<String> display, Consumer<String> fallback) {
+        this.stableWindowMs = stableWindowMs;
+        this.minWords = minWords;
+        this.checker = checker;
+        this.display = display;
+        this.fallback = fallback;
+    }
+
+    public int getStableWindowMs() {
+        return stableWindowMs;
+    }
+
+    /** Records the latest interim transcript of the current result and speculates if a prefix is stable. */
+    public synchronized void onInterim(String transcript) {
+        long now = System.currentTimeMillis();
+        String[] words = splitWords(transcript);
+        long[] since = new long[words.length];
+        boolean same = true;
+        for (int i = 0; i < words.length; i++) {
+            same &= i < interimWords.length && normalize(words[i]).equals(normalize(interimWords[i]));
+            since[i] = same ? wordStableSince[i] : now;
+        }
+        interimWords = words;
+        wordStableSince = since;
+        maybeSpeculate(now);
+    }
+
+    /** Re-evaluates stability when no new interim result has arrived for a while. */
+    public synchronized void poll() {
+        maybeSpeculate(System.currentTimeMillis());
+    }
+
+    /**
+     * Reconciles the final transcript of the current result with the speculation, if any.
+     * Returns the part of {@code finalTranscript} that still needs a normal fact-check.
+     */
+    public synchronized String onFinal(String finalTranscript) {
+        String[] finalWords = splitWords(finalTranscript);
+        interimWords = new String[0];
+        wordStableSince = new long[0];
+        Speculation s = current;
+        current = null;
+        if (s == null) return finalTranscript;
+
+        int prefixLength = Math.min(s.words.length, finalWords.length);
+        boolean matches = prefixLength == s.words.length
+                && sameNumbers(s.words, Arrays.copyOf(finalWords, prefixLength))
+                && editDistance(s.words, finalWords, prefixLength) <= Math.floor(s.words.length * MAX_WORD_EDIT_RATIO);
+
+        if (!matches) {
+            System.out.println("Speculative check diverged from final transcript; discarding.");
+            discard(s);
+            return finalTranscript;
+        }
+
+        s.confirmed = true;
+        confirmedCount++;
+        if (s.heldVerdict != null) {
+            display.accept(s.heldVerdict);
+        } else if (s.failed) {
+            fallback.accept(s.text);
+        }
+        return String.join(" ", Arrays.copyOfRange(finalWords, prefixLength, finalWords.length));
+    }
+
+    /** Discards a speculation that has not been reconciled yet. */
+    public synchronized void reset() {
+        interimWords = new String[0];
+        wordStableSince = new long[0];
+        if (current != null) discard(current);
+        current = null;
+    }
+
+    public synchronized String stats() {
+        return "speculative checks: started=" + started + ", confirmed=" + confirmedCount + ", discarded=" + discarded;
+    }
+
+    private void maybeSpeculate(long now) {
+        if (current != null) return;
+        int stable = 0;
+        while (stable < interimWords.length && now - wordStableSince[stable] >= stableWindowMs) stable++;
+        // Only speculate on complete thoughts: the whole interim text, or up to the last sentence end
+        if (stable < interimWords.length) {
+            while (stable > 0 && !interimWords[stable - 1].matches(".*[.?!]$")) stable--;
+        }
+        if (stable < minWords) return;
+
+        Speculation s = new Speculation(Arrays.copyOf(interimWords, stable));
+        CompletableFuture<String> future = checker.apply(s.text);
+        if (future == null) return; // no free request slot; the final result is checked normally
+        s.future = future;
+        current = s;
+        started++;
+        System.out.println("Speculatively fact-checking stable interim text (" + stable + " words).");
+        s.future.whenComplete((verdict, error) -> onVerdict(s, verdict, error));
+    }
+
+    private synchronized void onVerdict(Speculation s, String verdict, Throwable error) {
+        if (s.discarded) return;
+        boolean failed = error != null || verdict == null || verdict.startsWith("API") || verdict.startsWith("Error");
+        if (!s.confirmed) {
+            // Hold until the final result decides whether this verdict applies
+            if (failed) s.failed = true;
+            else s.heldVerdict = verdict;
+        } else if (failed) {
+            fallback.accept(s.text);
+        } else {
+            display.accept(verdict);
+        }
+    }
+
+    private void discard(Speculation s) {
+        s.discarded = true;
+        s.heldVerdict = null;
+        s.future.cancel(false);
+        discarded++;
+    }
+
+    private static String[] splitWords(String text) {
+        String trimmed = text == null ? "" : text.trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    private static String normalize(String word) {
+        return word.toLowerCase().replaceAll("[^a-z0-9.%]", "").replaceAll("\\.$", "");
+    }
+
+    private static boolean sameNumbers(String[] a, String[] b) {
+        return Arrays.equals(numbers(a), numbers(b));
+    }
+
+    private static String[] numbers(String[] words) {
+        return Arrays.stream(words).map(SpeculativeFactCheck::normalize)
+                .filter(w -> !w.isEmpty() && Character.isDigit(w.charAt(0)))
+                .toArray(String[]::new);
+    }
+
+    /** Word-level Levenshtein distance between {@code a} and the first {@code length} words of {@code b}. */
+    private static int editDistance(String[] a, String[] b, int length) {
+        int[] prev = new int[length + 1];
+        int[] curr = new int[length + 1];
+        for (int j = 0; j <= length; j++) prev[j] = j;
+        for (int i = 1; i <= a.length; i++) {
+            curr[0] = i;
+            String ai = normalize(a[i - 1]);
+            for (int j = 1; j <= length; j++) {
+                int cost = ai.equals(normalize(b[j - 1])) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[length];
+    }
+}
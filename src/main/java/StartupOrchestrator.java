@@ -0,0 +1,171 @@
+import com.google.cloud.speech.v1.SpeechClient;
+
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Brings the app up with the slow pieces overlapped instead of one after another:
+ * the Swing UI is built on the calling thread while the Speech client (credentials, gRPC channel)
+ * is created and a cheap request warms the TLS connection to the Gemini host in the background.
+ *
+ * Also measures time to first caption and first verdict from JVM launch.
+ * With {@code -Dstartup.training=true} it only loads classes and exits, which is what the Maven
+ * {@code cds} profile runs to record the class-data-sharing archive. That run makes no network calls
+ * and also works headless, as {@code mvn package} usually is.
+ */
+public class StartupOrchestrator {
+    // Measured from JVM launch so class loading and CDS effects are included
+    private static final long LAUNCH_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+    // UI and look-and-feel classes the app uses at runtime but only loads once a window is built
+    private static final String[] TRAINING_PRELOAD = {
+            "javax.swing.JFrame", "javax.swing.JPanel", "javax.swing.JButton", "javax.swing.JScrollPane",
+            "javax.swing.JTextArea", "javax.swing.JTextPane", "javax.swing.JEditorPane", "javax.swing.Timer",
+            "javax.swing.text.html.HTMLEditorKit", "javax.swing.text.html.HTMLDocument",
+            "javax.swing.plaf.basic.BasicLookAndFeel"
+    };
+    private static final AtomicBoolean FIRST_CAPTION = new AtomicBoolean(false);
+    private static final AtomicBoolean FIRST_VERDICT = new AtomicBoolean(false);
+    private static volatile long firstCaptionMs = -1;
+    private static volatile long firstVerdictMs = -1;
+
+    static {
+        PipelineMetrics.gauge("startup.firstCaptionMs", () -> firstCaptionMs);
+        PipelineMetrics.gauge("startup.firstVerdictMs", () -> firstVerdictMs);
+    }
+
+    public static boolean isTrainingRun() {
+        return Boolean.getBoolean("startup.training");
+    }
+
+    public static RealTimeTranscription warmStart() {
+        if (isTrainingRun()) {
+            trainingRun();
+        }
+        ExecutorService warmUp = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "startup-warmup");
+            t.setDaemon(true);
+            return t;
+        });
+
+        CompletableFuture<SpeechClient> speechClient = CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                SpeechClient client = SpeechClient.create();
+                System.out.println("Speech client ready in " + elapsedMs(start) + " ms.");
+                return client;
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not create Speech client: " + e.getMessage(), e);
+            }
+        }, warmUp);
+        CompletableFuture.runAsync(GeminiAPI::warmUp, warmUp);
+
+        RealTimeTranscription transcriber = null;
+        if (!GraphicsEnvironment.isHeadless()) {
+            long start = System.currentTimeMillis();
+            transcriber = new RealTimeTranscription();
+            System.out.println("UI built in " + elapsedMs(start) + " ms.");
+        }
+
+        if (transcriber == null) {
+            throw new IllegalStateException("A display is required to run the fact-checker UI.");
+        }
+        transcriber.usePrewarmedSpeechClient(speechClient);
+        warmUp.shutdown();
+        System.out.println("Warm start finished " + sinceLaunchMs() + " ms after launch.");
+        return transcriber;
+    }
+
+    /**
+     * Loads the app's classes for the CDS archive without touching the network, builds the overlay
+     * when a display is available, and exits. Only the overlay is built: {@link Transcription} would
+     * open (and truncate) the audio archive that a running instance may be using.
+     */
+    private static void trainingRun() {
+        int loaded = 0;
+        ClassLoader loader = StartupOrchestrator.class.getClassLoader();
+        List<String> names = new ArrayList<>(applicationClassNames());
+        names.addAll(List.of(TRAINING_PRELOAD));
+        names.add(SpeechClient.class.getName());
+        for (String name : names) {
+            try {
+                // Not initialized: static initializers may start threads or need a display
+                Class.forName(name, false, loader);
+                loaded++;
+            } catch (ClassNotFoundException | LinkageError e) {
+                System.err.println("Training run could not load " + name + ": " + e);
+            }
+        }
+        if (!GraphicsEnvironment.isHeadless()) {
+            try {
+                new FactCheckUI().dispose();
+            } catch (RuntimeException | Error e) {
+                System.err.println("Training run could not build the UI: " + e);
+            }
+        }
+        System.out.println("Training run loaded " + loaded + " classes in " + sinceLaunchMs() + " ms; exiting.");
+        System.exit(0);
+    }
+
+    /** Names of all classes in the app's own classpath entry, a directory or a jar. */
+    private static List<String> applicationClassNames() {
+        List<String> names = new ArrayList<>();
+        try {
+            Path location = Path.of(StartupOrchestrator.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isDirectory(location)) {
+                try (Stream<Path> files = Files.walk(location)) {
+                    files.map(f -> location.relativize(f).toString().replace('\\', '/'))
+                            .filter(f -> f.endsWith(".class") && !f.endsWith("module-info.class"))
+                            .forEach(f -> names.add(f.substring(0, f.length() - 6).replace('/', '.')));
+                }
+            } else {
+                try (JarFile jar = new JarFile(location.toFile())) {
+                    for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                        String f = entries.nextElement().getName();
+                        if (f.endsWith(".class") && !f.endsWith("module-info.class") && !f.startsWith("META-INF/")) {
+                            names.add(f.substring(0, f.length() - 6).replace('/', '.'));
+                        }
+                    }
+                }
+            }
+        } catch (IOException | URISyntaxException | SecurityException e) {
+            System.err.println("Training run could not list application classes: " + e.getMessage());
+        }
+        return names;
+    }
+
+    public static void markFirstCaption() {
+        if (FIRST_CAPTION.compareAndSet(false, true)) {
+            firstCaptionMs = sinceLaunchMs();
+            System.out.println("⏱ Time to first caption: " + firstCaptionMs + " ms");
+        }
+    }
+
+    public static void markFirstVerdict() {
+        if (FIRST_VERDICT.compareAndSet(false, true)) {
+            firstVerdictMs = sinceLaunchMs();
+            System.out.println("⏱ Time to first verdict: " + firstVerdictMs + " ms");
+        }
+    }
+
+    private static long sinceLaunchMs() {
+        return System.currentTimeMillis() - LAUNCH_MILLIS;
+    }
+
+    private static long elapsedMs(long startMillis) {
+        return System.currentTimeMillis() - startMillis;
+    }
+}
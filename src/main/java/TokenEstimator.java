@@ -0,0 +1,40 @@
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cheap token-count estimate for Gemini requests, used to keep prompts inside a budget before
+ * they are sent. English text averages about four characters per token; the estimate errs high.
+ */
+public class TokenEstimator {
+    private static final double CHARS_PER_TOKEN = 4.0;
+    private static final Pattern SENTENCE_BOUNDARY = Pattern.compile("(?<=[.!?\\n])\\s+");
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) return 0;
+        return (int) Math.ceil(text.length() / CHARS_PER_TOKEN);
+    }
+
+    /** Longest text that {@link #estimate} still counts as at most {@code tokens} tokens. */
+    public static int charsForTokens(int tokens) {
+        return (int) (tokens * CHARS_PER_TOKEN);
+    }
+
+    /**
+     * Returns {@code text} unchanged if it fits in {@code budgetTokens}; otherwise keeps the most
+     * recent whole sentences that fit, since those are the ones the verdict is wanted for.
+     */
+    public static String trimToBudget(String text, int budgetTokens) {
+        if (text == null || budgetTokens <= 0 || estimate(text) <= budgetTokens) return text;
+
+        int budgetChars = charsForTokens(budgetTokens);
+        int minStart = text.length() - budgetChars;
+        Matcher m = SENTENCE_BOUNDARY.matcher(text);
+        while (m.find()) {
+            if (m.end() >= minStart) {
+                return text.substring(m.end());
+            }
+        }
+        // No sentence boundary inside the budget; keep the tail of the text
+        return text.substring(minStart);
+    }
+}
@@ -6,35 +6,74 @@ import com.google.protobuf.ByteString;
 
 import javax.sound.sampled.*;
 import javax.swing.Timer;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Transcription {
-    private static final int SAMPLE_RATE = 16000;
-    private static final int BUFFER_SIZE = 4096;
-    private static final int PAUSE_TIMEOUT_MS = 800;
-    private static final int FACT_CHECK_BATCH_SIZE = 3;
+    private static final float[] NATIVE_SAMPLE_RATES = {48000.0F, 44100.0F, 32000.0F, 16000.0F};
+    private static final int SPECULATIVE_MIN_WORDS = 6;
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
 
     private final FactCheckUI ui;
     private final AtomicBoolean isRecording = new AtomicBoolean(false);
     private final ExecutorService audioExecutor = Executors.newSingleThreadExecutor();
     private TargetDataLine systemAudioLine;
+    private AudioResampler resampler;
+    private final int sampleRate = RuntimeConfig.getInt("asr.sampleRate"); // fixed for the session; the archive depends on it
     private final StringBuilder currentLineBuilder = new StringBuilder();
     private final Timer pauseCommitTimer;
     private final StringBuilder factCheckBatchBuilder = new StringBuilder();
     private int finalizedLineCount = 0;
+    // Text of the current line that has not already been covered by a speculative check
+    private final StringBuilder uncheckedLineBuilder = new StringBuilder();
+    private final SpeculativeFactCheck speculation;
+    private final Timer speculationTimer;
+    private final FactCheckDispatcher dispatcher;
+    private volatile CompletableFuture<SpeechClient> prewarmedClient;
+    private final AudioArchive audioArchive;
+    private final AudioRechecker rechecker;
+    private final AsrStreamRecorder recorder;
 
     // --- MODIFICATION: Volatile boolean to manage the active stream state ---
     private volatile boolean streamActive;
 
     public Transcription(FactCheckUI ui) {
         this.ui = ui;
-        this.pauseCommitTimer = new Timer(PAUSE_TIMEOUT_MS, e -> finalizeLine());
+        this.pauseCommitTimer = new Timer(RuntimeConfig.getInt("factcheck.pauseTimeoutMs"), e -> finalizeLine());
         this.pauseCommitTimer.setRepeats(false);
+        this.dispatcher = new FactCheckDispatcher(GeminiAPI::callFactCheckAPIAsync, ui::displayFactCheckResult,
+                RuntimeConfig.getInt("factcheck.queue.capacity"), RuntimeConfig.getInt("factcheck.queue.maxInFlight"),
+                FactCheckDispatcher.parsePolicy(RuntimeConfig.getString("factcheck.queue.policy")));
+        this.audioArchive = openAudioArchive();
+        this.recorder = openRecorder();
+        this.rechecker = audioArchive != null ? new AudioRechecker(audioArchive, dispatcher::isIdle) : null;
+        if (RuntimeConfig.getBoolean("factcheck.speculative")) {
+            int stableMs = RuntimeConfig.getInt("factcheck.speculative.stableMs");
+            // Speculative requests share the dispatcher's in-flight limit so they cannot pile up
+            this.speculation = new SpeculativeFactCheck(stableMs, SPECULATIVE_MIN_WORDS,
+                    dispatcher::trySend, ui::displayFactCheckResult,
+                    // Called from the completing request's thread too, so it must not touch factCheckBatchBuilder
+                    text -> dispatcher.submit(answerKnownClaims(text.trim())));
+            this.speculationTimer = new Timer(stableMs, e -> speculation.poll());
+            this.speculationTimer.setRepeats(false);
+        } else {
+            this.speculation = null;
+            this.speculationTimer = null;
+        }
+    }
+
+    /** Reuses a client created during warm start for the first stream instead of creating one then. */
+    public void usePrewarmedSpeechClient(CompletableFuture<SpeechClient> client) {
+        this.prewarmedClient = client;
     }
 
     public void start() {
@@ -50,11 +89,24 @@ public class Transcription {
         if (pauseCommitTimer.isRunning()) {
             pauseCommitTimer.stop();
         }
+        if (speculation != null) {
+            speculationTimer.stop();
+            speculation.reset();
+            System.out.println(speculation.stats());
+        }
         // Fact-check any remaining lines
         if (factCheckBatchBuilder.length() > 0) {
             System.out.println("Sending final batch on stop.");
             triggerFactCheckBatch();
         }
+        System.out.println(dispatcher.stats());
+        if (rechecker != null) {
+            rechecker.shutdown();
+        }
+        // Closed here as well as in the streaming finally block: on exit the JVM does not wait for that
+        if (recorder != null) {
+            recorder.close();
+        }
 
         // The audio line and executor shutdown are handled in the streaming method's finally block
         audioExecutor.shutdownNow();
@@ -68,7 +120,15 @@ public class Transcription {
             systemAudioLine = findAndPrepareAudioLine();
             systemAudioLine.start();
 
-            byte[] buffer = new byte[BUFFER_SIZE];
+            // Read the same 128 ms per request at the device's native rate, then convert in-process.
+            // Buffers and resampler are sized for the largest asr.bufferBytes so a hot reload only
+            // changes how much is read, never the resampler's state.
+            AudioFormat nativeFormat = systemAudioLine.getFormat();
+            int maxCaptureBytes = captureBufferSize(nativeFormat, RuntimeConfig.maxInt("asr.bufferBytes"));
+            resampler = new AudioResampler((int) nativeFormat.getSampleRate(), nativeFormat.getChannels(),
+                    nativeFormat.isBigEndian(), sampleRate, maxCaptureBytes);
+            byte[] buffer = new byte[maxCaptureBytes];
+            byte[] resampled = new byte[resampler.maxOutputBytes(maxCaptureBytes)];
 
             // Main loop to keep the transcription running
             while (isRecording.get()) {
@@ -76,14 +136,16 @@ public class Transcription {
                 streamActive = true;
                 System.out.println("Attempting to start a new transcription stream...");
 
-                try (SpeechClient client = SpeechClient.create()) {
-                    ClientStream<StreamingRecognizeRequest> clientStream = client.streamingRecognizeCallable().splitCall(createResponseObserver());
+                try (SpeechClient client = obtainSpeechClient()) {
+                    ResponseObserver<StreamingRecognizeResponse> observer = createResponseObserver();
+                    if (recorder != null) observer = recorder.wrap(observer);
+                    ClientStream<StreamingRecognizeRequest> clientStream = client.streamingRecognizeCallable().splitCall(observer);
 
                     StreamingRecognitionConfig streamingConfig = StreamingRecognitionConfig.newBuilder()
                             .setConfig(RecognitionConfig.newBuilder()
                                     .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
                                     .setLanguageCode("en-US")
-                                    .setSampleRateHertz(SAMPLE_RATE)
+                                    .setSampleRateHertz(sampleRate)
                                     .setEnableAutomaticPunctuation(true)
                                     .build())
                             .setInterimResults(true)
@@ -94,10 +156,16 @@ public class Transcription {
 
                     // Feed audio to the stream as long as it's active
                     while (isRecording.get() && streamActive) {
-                        int bytesRead = systemAudioLine.read(buffer, 0, buffer.length);
+                        int captureBytes = captureBufferSize(nativeFormat, RuntimeConfig.getInt("asr.bufferBytes"));
+                        int bytesRead = systemAudioLine.read(buffer, 0, captureBytes);
                         if (bytesRead > 0) {
+                            int resampledBytes = resampler.process(buffer, bytesRead, resampled);
+                            if (resampledBytes == 0) continue;
+                            if (audioArchive != null) {
+                                audioArchive.write(resampled, 0, resampledBytes);
+                            }
                             clientStream.send(StreamingRecognizeRequest.newBuilder()
-                                    .setAudioContent(ByteString.copyFrom(buffer, 0, bytesRead))
+                                    .setAudioContent(ByteString.copyFrom(resampled, 0, resampledBytes))
                                     .build());
                         }
                     }
@@ -120,13 +188,24 @@ public class Transcription {
                 systemAudioLine.stop();
                 systemAudioLine.close();
             }
+            if (audioArchive != null) {
+                try {
+                    audioArchive.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close audio archive: " + e.getMessage());
+                }
+            }
+            if (recorder != null) {
+                recorder.close();
+            }
         }
     }
 
     /**
      * **UPDATED**: This observer now controls the streamActive flag to signal when a stream ends.
+     * Package-private so {@link AsrReplayBenchmark} can drive it from a recording.
      */
-    private ResponseObserver<StreamingRecognizeResponse> createResponseObserver() {
+    ResponseObserver<StreamingRecognizeResponse> createResponseObserver() {
         return new ResponseObserver<>() {
             @Override
             public void onStart(StreamController controller) {}
@@ -143,17 +222,28 @@ public class Transcription {
                 if (result.getIsFinal()) {
                     pauseCommitTimer.stop();
                     currentLineBuilder.append(transcript).append(" ");
+                    if (speculation != null) {
+                        speculationTimer.stop();
+                        uncheckedLineBuilder.append(speculation.onFinal(transcript)).append(" ");
+                    } else {
+                        uncheckedLineBuilder.append(transcript).append(" ");
+                    }
                     long sentenceCount = currentLineBuilder.toString().chars().filter(c -> c == '.' || c == '?' || c == '!').count();
 
                     if (sentenceCount >= 2) {
                         finalizeLine();
                     } else {
                         ui.updateLiveCaption(currentLineBuilder.toString());
+                        pauseCommitTimer.setInitialDelay(RuntimeConfig.getInt("factcheck.pauseTimeoutMs"));
                         pauseCommitTimer.restart();
                     }
                 } else {
                     String previewText = currentLineBuilder.toString() + transcript;
                     ui.updateLiveCaption(previewText);
+                    if (speculation != null) {
+                        speculation.onInterim(transcript);
+                        speculationTimer.restart();
+                    }
                 }
             }
 
@@ -178,56 +268,158 @@ public class Transcription {
         if (!lineToCommit.isEmpty()) {
             String timestamp = LocalTime.now().format(TIME_FORMATTER);
             ui.commitFinalTranscript(lineToCommit, timestamp);
-            factCheckBatchBuilder.append(lineToCommit).append(" ");
-            finalizedLineCount++;
-            if (finalizedLineCount >= FACT_CHECK_BATCH_SIZE) {
+            String unchecked = uncheckedLineBuilder.toString().trim();
+            if (!unchecked.isEmpty()) {
+                factCheckBatchBuilder.append(unchecked).append(" ");
+                finalizedLineCount++;
+            }
+            if (finalizedLineCount >= RuntimeConfig.getInt("factcheck.batchSize")) {
                 triggerFactCheckBatch();
             }
         }
         currentLineBuilder.setLength(0);
+        uncheckedLineBuilder.setLength(0);
+    }
+
+    /**
+     * Re-transcribes and re-checks the last {@code seconds} of audio on the background lane,
+     * for when a live verdict looks wrong.
+     */
+    public void recheckLast(int seconds) {
+        if (rechecker == null) {
+            ui.displayRecheckResult("Re-check unavailable: audio archive is disabled.");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        rechecker.recheck(now - seconds * 1000L, now)
+                .thenAccept(ui::displayRecheckResult)
+                .exceptionally(ex -> {
+                    ui.displayRecheckResult("Re-check failed: " + ex.getMessage());
+                    return null;
+                });
+    }
+
+    private AudioArchive openAudioArchive() {
+        int minutes = RuntimeConfig.getInt("factcheck.archive.minutes");
+        if (minutes <= 0) return null;
+        try {
+            Path file = Path.of(System.getProperty("factcheck.archive.path",
+                    Path.of(System.getProperty("java.io.tmpdir"), "livefactchecker-audio.ring").toString()));
+            return new AudioArchive(file, minutes, sampleRate);
+        } catch (IOException e) {
+            System.err.println("Audio archive disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private AsrStreamRecorder openRecorder() {
+        String file = RuntimeConfig.getString("asr.recordFile");
+        if (file.isEmpty()) return null;
+        try {
+            return new AsrStreamRecorder(Path.of(file));
+        } catch (IOException e) {
+            System.err.println("ASR recording disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private SpeechClient obtainSpeechClient() throws IOException {
+        CompletableFuture<SpeechClient> prewarmed = prewarmedClient;
+        prewarmedClient = null;
+        if (prewarmed != null) {
+            try {
+                return prewarmed.join();
+            } catch (CompletionException e) {
+                System.err.println("Prewarmed Speech client unavailable, creating a new one: " + e.getMessage());
+            }
+        }
+        return SpeechClient.create();
     }
 
     //<editor-fold desc="Unchanged Helper Methods">
-    private AudioFormat getDesiredFormat() {
-        return new AudioFormat(16000.0F, 16, 1, true, false);
+    private int captureBufferSize(AudioFormat format, int asrBytes) {
+        int frameSize = format.getFrameSize();
+        double seconds = asrBytes / (sampleRate * 2.0);
+        int frames = (int) Math.round(format.getSampleRate() * seconds);
+        return frames * frameSize;
     }
 
     private void triggerFactCheckBatch() {
-        String batchToFactCheck = factCheckBatchBuilder.toString().trim();
+        String batchToFactCheck = answerKnownClaims(factCheckBatchBuilder.toString().trim());
         if (!batchToFactCheck.isEmpty()) {
             System.out.println("Sending batch of " + finalizedLineCount + " lines for fact-check.");
-            GeminiAPI.callFactCheckAPIAsync(batchToFactCheck)
-                    .thenAccept(ui::displayFactCheckResult)
-                    .exceptionally(ex -> {
-                        ex.printStackTrace();
-                        ui.displayFactCheckResult("Error during fact-check: " + ex.getMessage());
-                        return null;
-                    });
+            dispatcher.submit(batchToFactCheck);
         }
         factCheckBatchBuilder.setLength(0);
         finalizedLineCount = 0;
     }
 
-    public TargetDataLine findAndPrepareAudioLine() throws LineUnavailableException {
-        AudioFormat format = getDesiredFormat();
-        DataLine.Info info = new DataLine.Info(TargetDataLine.class, format);
+    /**
+     * Displays stored verdicts for sentences the local knowledge base already knows and returns
+     * the rest of the batch, which still needs to go to Gemini.
+     */
+    private String answerKnownClaims(String batch) {
+        if (batch.isEmpty()) return batch;
+        List<ClaimKnowledgeBase.Match> matches = ClaimKnowledgeBase.lookup(batch);
+        if (matches.isEmpty()) return batch;
+
+        StringBuilder remaining = new StringBuilder();
+        int next = 0;
+        for (String sentence : ClaimKnowledgeBase.splitSentences(batch)) {
+            if (next < matches.size() && matches.get(next).sentence().equals(sentence)) {
+                ui.displayFactCheckResult(matches.get(next).verdict());
+                next++;
+            } else {
+                remaining.append(sentence).append(" ");
+            }
+        }
+        System.out.println("Answered " + matches.size() + " claim(s) from the local knowledge base.");
+        return remaining.toString().trim();
+    }
 
+    /**
+     * Opens Stereo Mix in the first 16-bit PCM format the device supports natively, preferring
+     * the formats it advertises and then common hardware rates in stereo and mono.
+     * Conversion to 16 kHz mono is done by {@link AudioResampler}.
+     */
+    public TargetDataLine findAndPrepareAudioLine() throws LineUnavailableException {
         for (Mixer.Info mixerInfo : AudioSystem.getMixerInfo()) {
             if (mixerInfo.getName().toLowerCase().contains("stereo mix")) {
                 Mixer mixer = AudioSystem.getMixer(mixerInfo);
-                if (mixer.isLineSupported(info)) {
+                for (AudioFormat format : candidateFormats(mixer)) {
+                    DataLine.Info info = new DataLine.Info(TargetDataLine.class, format);
+                    if (!mixer.isLineSupported(info)) continue;
                     try {
                         TargetDataLine targetLine = (TargetDataLine) mixer.getLine(info);
                         targetLine.open(format);
-                        System.out.println("✅ Using Stereo Mix for system audio capture.");
+                        System.out.println("✅ Using Stereo Mix for system audio capture at " + format + ".");
                         return targetLine;
-                    } catch (LineUnavailableException e) {
-                        System.err.println("Stereo Mix was found but is busy or unavailable: " + e.getMessage());
+                    } catch (LineUnavailableException | IllegalArgumentException e) {
+                        System.err.println("Stereo Mix rejected " + format + ": " + e.getMessage());
                     }
                 }
             }
         }
         throw new LineUnavailableException("❌ Stereo Mix not found or is unavailable. Please enable it in your system's sound settings.");
     }
+
+    private List<AudioFormat> candidateFormats(Mixer mixer) {
+        List<AudioFormat> formats = new ArrayList<>();
+        for (Line.Info lineInfo : mixer.getTargetLineInfo()) {
+            if (!(lineInfo instanceof DataLine.Info dataLineInfo)) continue;
+            for (AudioFormat f : dataLineInfo.getFormats()) {
+                if (f.getEncoding() == AudioFormat.Encoding.PCM_SIGNED && f.getSampleSizeInBits() == 16
+                        && f.getSampleRate() != AudioSystem.NOT_SPECIFIED && f.getChannels() != AudioSystem.NOT_SPECIFIED) {
+                    formats.add(f);
+                }
+            }
+        }
+        for (float rate : NATIVE_SAMPLE_RATES) {
+            for (int channels = 2; channels >= 1; channels--) {
+                formats.add(new AudioFormat(rate, 16, channels, true, false));
+            }
+        }
+        return formats;
+    }
     //</editor-fold>
 }
\ No newline at end of file